@@ -108,7 +108,7 @@ public class ChessClient {
         position = position.toLowerCase();
         var col = position.charAt(0) - 'a' + 1;
         var row = Character.getNumericValue(position.charAt(1));
-        return new Position(row, col);
+        return Position.of(row, col);
     }
 
     private String leaveGame() throws ResponseException {
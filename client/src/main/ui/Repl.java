@@ -122,7 +122,7 @@ public class Repl implements NotificationHandler {
         for (int i = startRow; i != endRow; i += rowIncrement) {
             sb.append(BG_LIGHT_GRAY + BLACK + BOLD).append(" ").append(i).append(" ").append(RESET_BG_COLOR);
             for (int j = 1; j <= 8; j++) {
-                var currentPos = playerColor == ChessGame.TeamColor.WHITE ? new chess.Position(i, j) : new chess.Position(i, 9 - j);
+                var currentPos = playerColor == ChessGame.TeamColor.WHITE ? chess.Position.of(i, j) : chess.Position.of(i, 9 - j);
 
                 // highlight the current position if it is a valid move
                 if (highlightedPositions.contains(currentPos)) {
@@ -131,7 +131,7 @@ public class Repl implements NotificationHandler {
                     sb.append(currentBG);
                 }
 
-                var position = playerColor == ChessGame.TeamColor.WHITE ? new chess.Position(i, j) : new chess.Position(i, 9 - j);
+                var position = playerColor == ChessGame.TeamColor.WHITE ? chess.Position.of(i, j) : chess.Position.of(i, 9 - j);
                 var piece = board.getPiece(position);
                 var pieceString = piece == null ? "   " : pieceToUnicode(piece);
                 sb.append(BOLD).append(pieceString);
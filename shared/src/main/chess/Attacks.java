@@ -0,0 +1,228 @@
+package chess;
+
+/**
+ * Precomputed attack bitboards for every piece type, indexed by the {@link BitBoard} square numbering.
+ * Knight, king and pawn attacks are plain per-square tables. Rook and bishop attacks use magic bitboards,
+ * the relevant blockers are multiplied by a per-square magic number to index a table of precomputed rays.
+ * The magic numbers were found ahead of time with a seeded random search, so loading the class only fills the tables.
+ */
+public final class Attacks {
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+            0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = {
+            0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+            0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+            0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+            0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+            0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+            0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+            0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+            0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+            0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+            0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+            0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+            0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+            0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+            0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+            0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+            0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L
+    };
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final int[][] KNIGHT_STEPS = {{2, -1}, {2, 1}, {-2, -1}, {-2, 1}, {-1, -2}, {1, -2}, {-1, 2}, {1, 2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {-1, 0}, {0, -1}, {0, 1}, {1, -1}, {1, 1}, {-1, -1}, {-1, 1}};
+    private static final int[][] ROOK_RAYS = {{1, 0}, {-1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_RAYS = {{1, -1}, {1, 1}, {-1, -1}, {-1, 1}};
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = steps(square, KNIGHT_STEPS);
+            KING[square] = steps(square, KING_STEPS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = steps(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = steps(square, new int[][]{{-1, -1}, {-1, 1}});
+            initMagic(square, ROOK_RAYS, ROOK_MASK, ROOK_MAGIC[square], ROOK_SHIFT, ROOK_ATTACKS);
+            initMagic(square, BISHOP_RAYS, BISHOP_MASK, BISHOP_MAGIC[square], BISHOP_SHIFT, BISHOP_ATTACKS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                var ends = 1L << a | 1L << b;
+                if ((rook(a, 0L) & 1L << b) != 0) {
+                    BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0L) & rook(b, 0L)) | ends;
+                } else if ((bishop(a, 0L) & 1L << b) != 0) {
+                    BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0L) & bishop(b, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @return the squares a knight on the given square attacks
+     */
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * @return the squares a king on the given square attacks
+     */
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the given square attacks
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * @param occupied every occupied square on the board
+     * @return the squares a rook on the given square attacks, including the first blocker in each direction
+     */
+    public static long rook(int square, long occupied) {
+        return ROOK_ATTACKS[square][(int) (((occupied & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square])];
+    }
+
+    /**
+     * @param occupied every occupied square on the board
+     * @return the squares a bishop on the given square attacks, including the first blocker in each direction
+     */
+    public static long bishop(int square, long occupied) {
+        return BISHOP_ATTACKS[square][(int) (((occupied & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square])];
+    }
+
+    /**
+     * @param occupied every occupied square on the board
+     * @return the squares a queen on the given square attacks, including the first blocker in each direction
+     */
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same row, column or diagonal, otherwise empty
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square of the row, column or diagonal through both squares, or empty if they do not share one
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * @return a bitboard of the squares one step away in each of the given directions
+     */
+    private static long steps(int square, int[][] steps) {
+        long result = 0L;
+        int row = square >> 3;
+        int column = square & 7;
+        for (var step : steps) {
+            if (onBoard(row + step[0], column + step[1])) {
+                result |= 1L << ((row + step[0]) << 3 | (column + step[1]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Walks each ray one square at a time, only used to build the magic tables
+     *
+     * @return the attacked squares, including the first blocker in each direction
+     */
+    private static long slideAttacks(int square, long occupied, int[][] rays) {
+        long result = 0L;
+        for (var ray : rays) {
+            int row = (square >> 3) + ray[0];
+            int column = (square & 7) + ray[1];
+            while (onBoard(row, column)) {
+                long bit = 1L << (row << 3 | column);
+                result |= bit;
+                if ((occupied & bit) != 0) break;
+                row += ray[0];
+                column += ray[1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the squares whose occupancy can change the attacks along the rays, the board edge is left out
+     */
+    private static long relevantMask(int square, int[][] rays) {
+        long result = 0L;
+        for (var ray : rays) {
+            int row = (square >> 3) + ray[0];
+            int column = (square & 7) + ray[1];
+            while (onBoard(row + ray[0], column + ray[1])) {
+                result |= 1L << (row << 3 | column);
+                row += ray[0];
+                column += ray[1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fills the attack table for a square by walking the rays for every blocker subset of the mask
+     */
+    private static void initMagic(int square, int[][] rays, long[] masks, long magic, int[] shifts, long[][] attacks) {
+        long mask = relevantMask(square, rays);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+
+        // enumerate every subset of the mask with the carry-rippler trick
+        long subset = 0L;
+        do {
+            table[(int) ((subset * magic) >>> (64 - bits))] = slideAttacks(square, subset, rays);
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+        attacks[square] = table;
+    }
+
+    private static boolean onBoard(int row, int column) {
+        return row >= 0 && row < 8 && column >= 0 && column < 8;
+    }
+}
@@ -0,0 +1,328 @@
+package chess;
+
+import java.util.Arrays;
+
+import static chess.ChessGame.TeamColor.BLACK;
+import static chess.ChessGame.TeamColor.WHITE;
+import static chess.ChessPiece.PieceType.*;
+
+/**
+ * A chessboard backed by one 64-bit bitboard per piece type and color.
+ * Square {@code (row - 1) * 8 + (column - 1)} maps to one bit, so a1 is bit 0 and h8 is bit 63.
+ * The pieces themselves are also kept in a 64 entry mailbox, so getPiece returns the same instance that was added.
+ */
+public class BitBoard implements ChessBoard {
+
+    private static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    private final ChessPiece[] squares;
+    private final transient long[] pieces;
+    private final transient long[] colors;
+    private transient long occupied;
+    private transient long key;
+    private transient int midgame;
+    private transient int endgame;
+    private transient int phase;
+    private transient BoardListener listener;
+
+    public BitBoard() {
+        this.squares = new ChessPiece[64];
+        this.pieces = new long[2 * PIECE_TYPES];
+        this.colors = new long[2];
+    }
+
+    public BitBoard(ChessPiece[] squares) {
+        this();
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != null) {
+                place(square, squares[square]);
+            }
+        }
+    }
+
+    /**
+     * @return the board itself if it is already a BitBoard, otherwise a new BitBoard holding the same pieces
+     */
+    public static BitBoard of(ChessBoard board) {
+        if (board instanceof BitBoard bitBoard) {
+            return bitBoard;
+        }
+        var result = new BitBoard();
+        for (int square = 0; square < 64; square++) {
+            var piece = board.getPiece(position(square));
+            if (piece != null) {
+                result.place(square, piece);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new board holding the same pieces
+     */
+    public BitBoard copy() {
+        return new BitBoard(squares);
+    }
+
+    /**
+     * @return the square index of a position, 0 for a1 through 63 for h8
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the square index of a row and column, 0 for a1 through 63 for h8
+     */
+    public static int square(int row, int column) {
+        return (row - 1) << 3 | (column - 1);
+    }
+
+    /**
+     * @return the position of a square index
+     */
+    public static ChessPosition position(int square) {
+        return Position.of(square);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard
+     *
+     * @param position where to add the piece to
+     * @param piece    the piece to add
+     */
+    @Override
+    public void addPiece(ChessPosition position, ChessPiece piece) {
+        addPiece(square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to a square index, or clears the square if the piece is null
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        if (squares[square] != null) {
+            remove(square);
+        }
+        if (piece != null) {
+            place(square, piece);
+        }
+    }
+
+    /**
+     * Gets a chess piece on the chessboard
+     *
+     * @param position The position to get the piece from
+     * @return Either the piece at the position, or null if no piece is at that position
+     */
+    @Override
+    public ChessPiece getPiece(ChessPosition position) {
+        return squares[square(position)];
+    }
+
+    /**
+     * @return the piece on a square index, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
+    @Override
+    public void resetBoard() {
+        // the listener has seen pieces that are about to disappear without being removed
+        listener = null;
+        Arrays.fill(squares, null);
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(colors, 0L);
+        occupied = 0L;
+        key = 0L;
+        midgame = 0;
+        endgame = 0;
+        phase = 0;
+        setRow(1, WHITE, true);
+        setRow(2, WHITE, false);
+        setRow(7, BLACK, false);
+        setRow(8, BLACK, true);
+    }
+
+    private void setRow(int row, ChessGame.TeamColor color, boolean isBackRow) {
+        var backRow = new ChessPiece.PieceType[]{ROOK, KNIGHT, BISHOP, QUEEN, KING, BISHOP, KNIGHT, ROOK};
+        for (int column = 1; column <= 8; column++) {
+            place(square(row, column), Piece.of(color, isBackRow ? backRow[column - 1] : PAWN));
+        }
+    }
+
+    /**
+     * @return the bitboard of every piece of the given color and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[index(color, type)];
+    }
+
+    /**
+     * @return the bitboard of every square occupied by the given color
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * The king bitboard is kept up to date by addPiece, so this never scans the board
+     *
+     * @return the square index of the given color's king, or -1 if it has no king
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        var kings = pieces[index(color, KING)];
+        return kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * @return the bitboard of every occupied square
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * The key is updated as pieces are added and removed, it never has to be recomputed from the squares
+     *
+     * @return the Zobrist key of the pieces on the board
+     */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * The scores are updated as pieces are added and removed, like the key
+     *
+     * @return the summed {@link PieceSquare#midgame} score of every piece, from white's point of view
+     */
+    public int midgame() {
+        return midgame;
+    }
+
+    /**
+     * @return the summed {@link PieceSquare#endgame} score of every piece, from white's point of view
+     */
+    public int endgame() {
+        return endgame;
+    }
+
+    /**
+     * @return the summed {@link PieceSquare#phase} of every piece on the board
+     */
+    public int phase() {
+        return phase;
+    }
+
+    /**
+     * Looks outward from the square along the rook and bishop rays and the knight, king and pawn offsets,
+     * instead of generating the moves of every piece of the attacking color
+     *
+     * @param square  the square index to test
+     * @param byColor the color of the attacking pieces
+     * @return true if any piece of the given color attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        var defender = byColor == WHITE ? BLACK : WHITE;
+        var queens = pieces(byColor, QUEEN);
+        return (Attacks.pawn(defender, square) & pieces(byColor, PAWN)) != 0
+                || (Attacks.knight(square) & pieces(byColor, KNIGHT)) != 0
+                || (Attacks.king(square) & pieces(byColor, KING)) != 0
+                || (Attacks.bishop(square, occupied) & (pieces(byColor, BISHOP) | queens)) != 0
+                || (Attacks.rook(square, occupied) & (pieces(byColor, ROOK) | queens)) != 0;
+    }
+
+    /**
+     * @param square   the square index to test
+     * @param byColor  the color of the attacking pieces
+     * @param occupied the occupancy to use for the rays, which may differ from the board's to look past a piece
+     * @return the bitboard of every piece of the given color that attacks the square
+     */
+    public long attackers(int square, ChessGame.TeamColor byColor, long occupied) {
+        var defender = byColor == WHITE ? BLACK : WHITE;
+        var queens = pieces(byColor, QUEEN);
+        return (Attacks.pawn(defender, square) & pieces(byColor, PAWN))
+                | (Attacks.knight(square) & pieces(byColor, KNIGHT))
+                | (Attacks.king(square) & pieces(byColor, KING))
+                | (Attacks.bishop(square, occupied) & (pieces(byColor, BISHOP) | queens))
+                | (Attacks.rook(square, occupied) & (pieces(byColor, ROOK) | queens));
+    }
+
+    /**
+     * A copy of the board starts without a listener
+     *
+     * @return the listener told about every piece placed and removed, or null if there is none
+     */
+    public BoardListener listener() {
+        return listener;
+    }
+
+    /**
+     * @param listener told about every piece placed on or removed from the board from now on, or null for none.
+     *                 Resetting the board drops the listener.
+     */
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    private void place(int square, ChessPiece piece) {
+        var bit = 1L << square;
+        squares[square] = piece;
+        pieces[index(piece.getTeamColor(), piece.getPieceType())] |= bit;
+        colors[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        key ^= Zobrist.piece(piece.getTeamColor(), piece.getPieceType(), square);
+        midgame += PieceSquare.midgame(piece.getTeamColor(), piece.getPieceType(), square);
+        endgame += PieceSquare.endgame(piece.getTeamColor(), piece.getPieceType(), square);
+        phase += PieceSquare.phase(piece.getPieceType());
+        if (listener != null) {
+            listener.placed(square, piece);
+        }
+    }
+
+    private void remove(int square) {
+        var bit = ~(1L << square);
+        var piece = squares[square];
+        squares[square] = null;
+        pieces[index(piece.getTeamColor(), piece.getPieceType())] &= bit;
+        colors[piece.getTeamColor().ordinal()] &= bit;
+        occupied &= bit;
+        key ^= Zobrist.piece(piece.getTeamColor(), piece.getPieceType(), square);
+        midgame -= PieceSquare.midgame(piece.getTeamColor(), piece.getPieceType(), square);
+        endgame -= PieceSquare.endgame(piece.getTeamColor(), piece.getPieceType(), square);
+        phase -= PieceSquare.phase(piece.getPieceType());
+        if (listener != null) {
+            listener.removed(square, piece);
+        }
+    }
+
+    private static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < 8; row++) {
+            sb.append(Arrays.toString(Arrays.copyOfRange(squares, row * 8, row * 8 + 8))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BitBoard other = (BitBoard) o;
+        return Arrays.equals(pieces, other.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+}
@@ -61,9 +61,9 @@ public class Board implements ChessBoard {
     private ChessPiece[] setRow(ChessGame.TeamColor color, boolean isBackRow) {
         ChessPiece[] row;
         if (isBackRow) {
-            row = new ChessPiece[]{new Piece(color, ROOK), new Piece(color, KNIGHT), new Piece(color, BISHOP), new Piece(color, QUEEN), new Piece(color, KING), new Piece(color, BISHOP), new Piece(color, KNIGHT), new Piece(color, ROOK)};
+            row = new ChessPiece[]{Piece.of(color, ROOK), Piece.of(color, KNIGHT), Piece.of(color, BISHOP), Piece.of(color, QUEEN), Piece.of(color, KING), Piece.of(color, BISHOP), Piece.of(color, KNIGHT), Piece.of(color, ROOK)};
         } else {
-            row = new ChessPiece[]{new Piece(color, PAWN), new Piece(color, PAWN), new Piece(color, PAWN), new Piece(color, PAWN), new Piece(color, PAWN), new Piece(color, PAWN), new Piece(color, PAWN), new Piece(color, PAWN),};
+            row = new ChessPiece[]{Piece.of(color, PAWN), Piece.of(color, PAWN), Piece.of(color, PAWN), Piece.of(color, PAWN), Piece.of(color, PAWN), Piece.of(color, PAWN), Piece.of(color, PAWN), Piece.of(color, PAWN),};
         }
         return row;
     }
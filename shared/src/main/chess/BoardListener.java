@@ -0,0 +1,20 @@
+package chess;
+
+/**
+ * Told about every piece a {@link BitBoard} gains or loses, so state derived from the pieces can be updated
+ * as moves are made and undone instead of being recomputed from the whole board
+ */
+public interface BoardListener {
+
+    /**
+     * @param square the square index the piece was put on
+     * @param piece  the piece
+     */
+    void placed(int square, ChessPiece piece);
+
+    /**
+     * @param square the square index the piece was taken from
+     * @param piece  the piece
+     */
+    void removed(int square, ChessPiece piece);
+}
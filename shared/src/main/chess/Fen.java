@@ -0,0 +1,247 @@
+package chess;
+
+import static chess.ChessGame.TeamColor.BLACK;
+import static chess.ChessGame.TeamColor.WHITE;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, such as the standard perft positions.
+ * Both directions walk the text or the board once without splitting or regular expressions, so a position
+ * costs one board to read and one string to write.
+ */
+public final class Fen {
+
+    /**
+     * The standard starting position
+     */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Long enough for any position, 64 pieces and separators plus the other fields
+     */
+    private static final int MAX_LENGTH = 92;
+
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string. The halfmove clock and fullmove number may be left off,
+     * they then start at 0 and 1.
+     *
+     * @param fen the FEN string
+     * @return a game in the described position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static Game parse(String fen) {
+        var cursor = new Cursor(fen);
+        if (!cursor.skipSpaces()) {
+            throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+        }
+
+        var board = new BitBoard();
+        int row = 8;
+        int column = 1;
+        for (char c; cursor.hasField() && (c = cursor.next()) != ' ' && c != '\t'; ) {
+            if (c == '/') {
+                if (column != 9 || row == 1) {
+                    throw new IllegalArgumentException("FEN row " + row + " does not have 8 squares: " + fen);
+                }
+                row--;
+                column = 1;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                if (column > 8) {
+                    throw new IllegalArgumentException("FEN piece placement runs off the board: " + fen);
+                }
+                board.addPiece(BitBoard.square(row, column), pieceOf(c));
+                column++;
+            }
+            if (column > 9) {
+                throw new IllegalArgumentException("FEN piece placement runs off the board: " + fen);
+            }
+        }
+        if (row != 1 || column != 9) {
+            throw new IllegalArgumentException("FEN piece placement must have 8 rows of 8 squares: " + fen);
+        }
+
+        if (!cursor.skipSpaces()) {
+            throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+        }
+        var teamTurn = switch (cursor.next()) {
+            case 'w' -> WHITE;
+            case 'b' -> BLACK;
+            default -> throw new IllegalArgumentException("FEN active color must be w or b: " + fen);
+        };
+        if (cursor.hasField()) {
+            throw new IllegalArgumentException("FEN active color must be w or b: " + fen);
+        }
+
+        if (!cursor.skipSpaces()) {
+            throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+        }
+        var castlingRights = 0;
+        if (cursor.peek() == '-') {
+            cursor.next();
+        } else {
+            while (cursor.hasField()) {
+                var c = cursor.next();
+                castlingRights |= switch (c) {
+                    case 'K' -> Game.WHITE_KINGSIDE;
+                    case 'Q' -> Game.WHITE_QUEENSIDE;
+                    case 'k' -> Game.BLACK_KINGSIDE;
+                    case 'q' -> Game.BLACK_QUEENSIDE;
+                    default -> throw new IllegalArgumentException("Unknown FEN castling right: " + c);
+                };
+            }
+        }
+
+        if (!cursor.skipSpaces()) {
+            throw new IllegalArgumentException("FEN needs at least 4 fields: " + fen);
+        }
+        var enPassantSquare = -1;
+        if (cursor.peek() == '-') {
+            cursor.next();
+        } else {
+            var file = cursor.next();
+            var rank = cursor.hasField() ? cursor.next() : ' ';
+            if (cursor.hasField() || file < 'a' || file > 'h' || (rank != '3' && rank != '6')) {
+                throw new IllegalArgumentException("FEN en passant square must be on row 3 or 6: " + fen);
+            }
+            enPassantSquare = BitBoard.square(rank - '0', file - 'a' + 1);
+        }
+
+        var halfmoveClock = cursor.skipSpaces() ? cursor.number(fen) : 0;
+        var fullmoveNumber = cursor.skipSpaces() ? cursor.number(fen) : 1;
+        if (cursor.skipSpaces()) {
+            throw new IllegalArgumentException("FEN has more than 6 fields: " + fen);
+        }
+        return new Game(board, teamTurn, castlingRights, enPassantSquare, halfmoveClock, Math.max(1, fullmoveNumber));
+    }
+
+    /**
+     * Writes all six fields. The castling field holds the rights the game can still use, so a right whose king
+     * or rook has left its square is not written.
+     *
+     * @return the position as a FEN string, which {@link #parse(String)} reads back into an equal game
+     */
+    public static String write(Game game) {
+        var board = BitBoard.of(game.getBoard());
+        var fen = new StringBuilder(MAX_LENGTH);
+        for (int row = 8; row >= 1; row--) {
+            var empty = 0;
+            for (int column = 1; column <= 8; column++) {
+                var piece = board.getPiece(BitBoard.square(row, column));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(letterOf(piece));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == WHITE ? " w " : " b ");
+        var rights = game.castlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            if ((rights & Game.WHITE_KINGSIDE) != 0) fen.append('K');
+            if ((rights & Game.WHITE_QUEENSIDE) != 0) fen.append('Q');
+            if ((rights & Game.BLACK_KINGSIDE) != 0) fen.append('k');
+            if ((rights & Game.BLACK_QUEENSIDE) != 0) fen.append('q');
+        }
+
+        var enPassant = game.enPassantSquare();
+        if (enPassant < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >> 3)));
+        }
+        return fen.append(' ').append(game.halfmoveClock()).append(' ').append(game.fullmoveNumber()).toString();
+    }
+
+    private static ChessPiece pieceOf(char c) {
+        var color = Character.isUpperCase(c) ? WHITE : BLACK;
+        var type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown FEN piece: " + c);
+        };
+        return Piece.of(color, type);
+    }
+
+    private static char letterOf(ChessPiece piece) {
+        var letter = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == WHITE ? Character.toUpperCase(letter) : letter;
+    }
+
+    /**
+     * Walks a FEN string one field at a time, fields are separated by any run of spaces or tabs
+     */
+    private static final class Cursor {
+        private final String text;
+        private int index;
+
+        private Cursor(String text) {
+            this.text = text;
+        }
+
+        /**
+         * @return true if another field follows
+         */
+        boolean skipSpaces() {
+            while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+                index++;
+            }
+            return index < text.length();
+        }
+
+        /**
+         * @return true if the current field has characters left
+         */
+        boolean hasField() {
+            return index < text.length() && !Character.isWhitespace(text.charAt(index));
+        }
+
+        char peek() {
+            return text.charAt(index);
+        }
+
+        char next() {
+            return text.charAt(index++);
+        }
+
+        int number(String fen) {
+            var value = 0;
+            var digits = 0;
+            while (hasField()) {
+                var c = next();
+                if (c < '0' || c > '9' || ++digits > 6) {
+                    throw new IllegalArgumentException("FEN move counters must be numbers: " + fen);
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+    }
+}
@@ -1,30 +1,79 @@
 package chess;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Deque;
 import java.util.Objects;
-import java.util.Set;
 
 import static java.lang.Math.abs;
 
 public class Game implements ChessGame {
 
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    /**
+     * The castling rights left after a piece moves from or to each square, moving the king or a rook
+     * or capturing a rook on its starting square loses the matching rights
+     */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+    }
+
+    /**
+     * Valid moves shared by every game, so copies of the same position hit the same entries
+     */
+    private static final MoveCache MOVE_CACHE = new MoveCache(16_384);
+
     private TeamColor teamTurn;
-    private ChessBoard board;
-    private ChessPiece isEnPassant;
-    private Set<ChessPiece> hasMoved = new HashSet<>();
+    private BitBoard board;
+    private int castlingRights = ALL_CASTLING;
+    private byte enPassantSquare = -1;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private transient Deque<Undo> history = new ArrayDeque<>();
+    private transient GameStatus status;
+    private transient long statusKey;
 
     public Game() {
         this.teamTurn = TeamColor.WHITE;
-        this.board = new Board();
+        this.board = new BitBoard();
         board.resetBoard();
     }
 
-    public Game(Board board, TeamColor teamTurn, Piece isEnPassant, Set<ChessPiece> hasMoved) {
-        this.board = board;
+    /**
+     * @param castlingRights  a 4-bit mask of {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE}, {@link #BLACK_KINGSIDE}
+     *                        and {@link #BLACK_QUEENSIDE}
+     * @param enPassantSquare the square index a pawn passed over with its last move, or -1 if there is none
+     */
+    public Game(ChessBoard board, TeamColor teamTurn, int castlingRights, int enPassantSquare) {
+        this(board, teamTurn, castlingRights, enPassantSquare, 0, 1);
+    }
+
+    /**
+     * @param halfmoveClock  the moves by either team since the last capture or pawn move, for the fifty move rule
+     * @param fullmoveNumber the number of the current move, starting at 1 and counting up after each black move
+     */
+    public Game(ChessBoard board, TeamColor teamTurn, int castlingRights, int enPassantSquare, int halfmoveClock,
+                int fullmoveNumber) {
+        this.board = BitBoard.of(board);
         this.teamTurn = teamTurn;
-        this.isEnPassant = isEnPassant;
-        this.hasMoved = hasMoved;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = (byte) enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
     }
 
     /**
@@ -46,143 +95,55 @@ public class Game implements ChessGame {
     }
 
     /**
-     * Gets a valid moves for a piece at the given location
+     * Gets a valid moves for a piece at the given location.
+     * The moves are looked up in a cache shared by every game, keyed by the position and square.
      *
      * @param startPosition the piece to get valid moves for
-     * @return Set of valid moves for requested piece, or null if no piece at startPosition
+     * @return Set of valid moves for requested piece, or null if no piece at startPosition, it cannot be modified
      */
     @Override
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
 
         var piece = board.getPiece(startPosition);
-        Set<ChessMove> validMoves = new HashSet<>(piece.pieceMoves(board, startPosition));
-        var enPassantMove = enPassantMoves(startPosition);
-        if (enPassantMove != null) {
-            validMoves.add(enPassantMove);
-        }
-        Set<ChessMove> castleMove = new HashSet<>(castleMoves(startPosition));
-        if (!castleMove.isEmpty()) {
-            validMoves.addAll(castleMove);
+        if (piece == null) {
+            return null;
         }
-        // always check if moves put the king into check
-        removeIfCheck(validMoves);
-        return validMoves;
-    }
-
-    /**
-     * Removes moves that put the king into check from a set of moves
-     *
-     * @param validMoves the set of moves to remove from
-     */
-    private void removeIfCheck(Set<ChessMove> validMoves) {
-        validMoves.removeIf(move -> {
-            // swap places, call isInCheck, remove if in check after swapping back.
-            var fromPiece = board.getPiece(move.getStartPosition());
-            var toPiece = board.getPiece(move.getEndPosition());
-            board.addPiece(move.getEndPosition(), fromPiece);
-            board.addPiece(move.getStartPosition(), null);
-            boolean isInCheck = isInCheck(fromPiece.getTeamColor());
-            board.addPiece(move.getStartPosition(), fromPiece);
-            board.addPiece(move.getEndPosition(), toPiece);
-            return isInCheck;
+        var color = piece.getTeamColor();
+        var square = BitBoard.square(startPosition);
+        return MOVE_CACHE.get(getZobristKey(), square, () -> {
+            var validMoves = new MoveList(32);
+            MoveGenerator.generate(board, color, castlingRights(), enPassantSquare(color), 1L << square, validMoves);
+            return validMoves.asChessMoves();
         });
     }
 
     /**
-     * @param startPosition the piece to get valid moves for
-     * @return a valid castle move
+     * @return the cache behind {@link #validMoves(ChessPosition)}, for its hit and miss counters
      */
-    private Collection<ChessMove> castleMoves(ChessPosition startPosition) {
-        var piece = board.getPiece(startPosition);
-
-        // if the piece is not a king or the king has moved, no castling
-        if (piece.getPieceType() != ChessPiece.PieceType.KING || hasMoved.contains(piece)) {
-            return new HashSet<>();
-        }
-
-        // if for some reason the king is not on the correct position, no castling
-        // this only matters for testing purposes
-        var kingRow = piece.getTeamColor() == TeamColor.WHITE ? 1 : 8;
-        if (startPosition.getColumn() != 5 || startPosition.getRow() != kingRow) {
-            return new HashSet<>();
-        }
-
-        // if the king is in check, no castling
-        if (isInCheck(piece.getTeamColor())) {
-            return new HashSet<>();
-        }
-
-        var baseRow = startPosition.getRow();
-        var kingCol = startPosition.getColumn();
-        var leftRook = board.getPiece(new Position(baseRow, 1));
-        var rightRook = board.getPiece(new Position(baseRow, 8));
-
-        // check for empty spaces between king and leftRook
-        boolean leftEmpty = true;
-        boolean rightEmpty = true;
-        for (int i = 2; i < kingCol; i++) {
-            if (board.getPiece(new Position(baseRow, i)) != null) {
-                leftEmpty = false;
-            }
-        }
-        for (int i = 7; i > kingCol; i--) {
-            if (board.getPiece(new Position(baseRow, i)) != null) {
-                rightEmpty = false;
-            }
-        }
-        // if both sides are not empty, don't continue
-        if (!leftEmpty && !rightEmpty) {
-            return new HashSet<>();
-        }
-        Set<ChessMove> shortMoves = new HashSet<>();
-        var leftMove = new Move(startPosition, new Position(baseRow, kingCol - 1));
-        var rightMove = new Move(startPosition, new Position(baseRow, kingCol + 1));
-        if (leftEmpty) {
-            shortMoves.add(leftMove);
-        }
-        if (rightEmpty) {
-            shortMoves.add(rightMove);
-        }
-        removeIfCheck(shortMoves);
-        if (shortMoves.isEmpty()) {
-            return new HashSet<>();
-        }
-
-        Set<ChessMove> result = new HashSet<>();
-        if (shortMoves.contains(leftMove) && !hasMoved.contains(leftRook)) {
-            result.add(new Move(startPosition, new Position(baseRow, kingCol - 2)));
-        }
-        if (shortMoves.contains(rightMove) && !hasMoved.contains(rightRook)) {
-            result.add(new Move(startPosition, new Position(baseRow, kingCol + 2)));
-        }
-        return result;
+    public static MoveCache moveCache() {
+        return MOVE_CACHE;
     }
 
     /**
-     * @param startPosition the piece to get valid moves for
-     * @return a valid enPassant move
-     */
-    private ChessMove enPassantMoves(ChessPosition startPosition) {
-        if (isEnPassant != null) {
-            var enPassantRow = isEnPassant.getTeamColor() == TeamColor.WHITE ? 4 : 5;
-            if (startPosition.getRow() == enPassantRow) {
-                var left = new Position(startPosition.getRow(), startPosition.getColumn() + Direction.LEFT.getColChange());
-                var right = new Position(startPosition.getRow(), startPosition.getColumn() + Direction.RIGHT.getColChange());
-                var direction = isEnPassant.getTeamColor() == TeamColor.WHITE ? -1 : 1;
-                if (isValidPosition(left) && board.getPiece(left) == isEnPassant) {
-                    return new Move(startPosition, new Position(startPosition.getRow() + direction * Direction.UP_LEFT.getRowChange(), startPosition.getColumn() + Direction.UP_LEFT.getColChange()));
-                } else if (isValidPosition(right) && board.getPiece(right) == isEnPassant) {
-                    return new Move(startPosition, new Position(startPosition.getRow() + direction * Direction.UP_RIGHT.getRowChange(), startPosition.getColumn() + Direction.UP_RIGHT.getColChange()));
-                }
-            }
-        }
-        return null;
+     * @return every valid move for the team whose turn it is
+     */
+    public Collection<ChessMove> legalMoves() {
+        var moves = new MoveList();
+        legalMoves(moves);
+        return moves.asChessMoves();
     }
 
     /**
-     * @return true if the position is on the board
+     * Clears the list and fills it with every valid move for the team whose turn it is, as {@link PackedMove packed moves}
+     *
+     * @param moves the list to fill, it can be reused between calls
      */
-    private boolean isValidPosition(ChessPosition position) {
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        MoveGenerator.generate(board, teamTurn, castlingRights(), enPassantSquare(teamTurn), ~0L, moves);
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
         return position.getRow() >= 1 && position.getRow() <= 8 && position.getColumn() >= 1 && position.getColumn() <= 8;
     }
 
@@ -191,17 +152,8 @@ public class Game implements ChessGame {
      * @return the king's position
      */
     public ChessPosition getKingPosition(ChessGame.TeamColor teamColor) {
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                var position = new Position(i, j);
-                var piece = board.getPiece(position);
-                if (piece == null) continue;
-                if (piece.getPieceType().equals(ChessPiece.PieceType.KING) && piece.getTeamColor().equals(teamColor)) {
-                    return position;
-                }
-            }
-        }
-        return null;
+        var kingSquare = board.kingSquare(teamColor);
+        return kingSquare < 0 ? null : BitBoard.position(kingSquare);
     }
 
     /**
@@ -213,68 +165,130 @@ public class Game implements ChessGame {
     @Override
     public void makeMove(ChessMove move) throws InvalidMoveException {
 
+        if (!isOnBoard(move.getStartPosition()) || !isOnBoard(move.getEndPosition())) {
+            throw new InvalidMoveException("Move is off the board");
+        }
         // check first if it is the correct turn
-        if (board.getPiece(move.getStartPosition()).getTeamColor() != teamTurn) {
+        var piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            throw new InvalidMoveException("No piece at " + move.getStartPosition());
+        }
+        if (piece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("Incorrect team turn");
         }
-        Set<ChessMove> validMoves = new HashSet<>(validMoves(move.getStartPosition()));
-        if (validMoves.contains(move)) {
-            var originalPiece = board.getPiece(move.getStartPosition());
-            var promotionPiece = move.getPromotionPiece();
-
-            // add the piece to the hasMoved set, preventing castling
-            if (originalPiece.getPieceType() == ChessPiece.PieceType.KING || originalPiece.getPieceType() == ChessPiece.PieceType.ROOK) {
-                hasMoved.add(originalPiece);
-            }
-
-            handleEnPassant(move, originalPiece);
-            handleCastle(move, originalPiece);
-
-            if (promotionPiece == null) {
-                board.addPiece(move.getEndPosition(), originalPiece);
-            } else {
-                // add the new piece to the hasMoved set, preventing castling with promoted rooks
-                hasMoved.remove(originalPiece);
-                var pawnPromotionPiece = new Piece(teamTurn, promotionPiece);
-                hasMoved.add(pawnPromotionPiece);
-                board.addPiece(move.getEndPosition(), pawnPromotionPiece);
-            }
-            board.addPiece(move.getStartPosition(), null);
-            teamTurn = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
-        } else {
+        var packed = PackedMove.of(move);
+        if (!MoveGenerator.isLegal(board, teamTurn, castlingRights(), enPassantSquare(teamTurn), packed)) {
             throw new InvalidMoveException();
         }
+        doMove(packed);
+        getStatus();
     }
 
-    /* Handles castling by moving the rook to the correct position */
-    private void handleCastle(ChessMove move, ChessPiece originalPiece) {
-        if (originalPiece.getPieceType() == ChessPiece.PieceType.KING) {
-            if (move.getEndPosition().getColumn() == 7) {
-                board.addPiece(new Position(move.getStartPosition().getRow(), 6), board.getPiece(new Position(move.getStartPosition().getRow(), 1)));
-                hasMoved.add(board.getPiece(new Position(move.getStartPosition().getRow(), 6)));
-                board.addPiece(new Position(move.getStartPosition().getRow(), 8), null);
-            } else if (move.getEndPosition().getColumn() == 3) {
-                board.addPiece(new Position(move.getStartPosition().getRow(), 4), board.getPiece(new Position(move.getStartPosition().getRow(), 8)));
-                hasMoved.add(board.getPiece(new Position(move.getStartPosition().getRow(), 4)));
-                board.addPiece(new Position(move.getStartPosition().getRow(), 1), null);
-            }
+    /**
+     * Tests a single move for the team whose turn it is without generating the other moves
+     *
+     * @param move the move to test
+     * @return true if the move is valid
+     */
+    public boolean isLegal(ChessMove move) {
+        if (!isOnBoard(move.getStartPosition()) || !isOnBoard(move.getEndPosition())) {
+            return false;
         }
+        return MoveGenerator.isLegal(board, teamTurn, castlingRights(), enPassantSquare(teamTurn), PackedMove.of(move));
     }
 
-    /* Handles en passant by removing the captured pawn */
-    private void handleEnPassant(ChessMove move, ChessPiece originalPiece) {
-        if (originalPiece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            var direction = originalPiece.getTeamColor() == TeamColor.WHITE ? 1 : -1;
-            if (this.isEnPassant != null && board.getPiece(new Position(move.getEndPosition().getRow() - direction, move.getEndPosition().getColumn())) == isEnPassant) {
-                board.addPiece(new Position(move.getEndPosition().getRow() - direction, move.getEndPosition().getColumn()), null);
-            }
+    /**
+     * Plays a move without checking that it is valid, including the castling, en passant and promotion side effects.
+     * The move can be taken back with {@link #undoMove()}.
+     *
+     * @param move the move to play
+     */
+    public void doMove(ChessMove move) {
+        doMove(PackedMove.of(move));
+    }
+
+    /**
+     * Plays a {@link PackedMove packed move} without checking that it is valid, the flags are not needed
+     *
+     * @param move the move to play
+     */
+    public void doMove(int move) {
+        var from = PackedMove.from(move);
+        var to = PackedMove.to(move);
+        var piece = board.getPiece(from);
+        var type = piece.getPieceType();
+        var captured = board.getPiece(to);
+        var capturedSquare = to;
+
+        // a pawn moving diagonally onto an empty square captures en passant
+        if (type == ChessPiece.PieceType.PAWN && captured == null && (from & 7) != (to & 7)) {
+            capturedSquare = (from & ~7) | (to & 7);
+            captured = board.getPiece(capturedSquare);
+            board.addPiece(capturedSquare, null);
         }
+
+        history.push(new Undo(from, to, piece, captured, capturedSquare, castlingRights, enPassantSquare, halfmoveClock));
+
+        // castling moves the king two columns, the rook jumps to the square the king passed over
+        if (type == ChessPiece.PieceType.KING && abs((to & 7) - (from & 7)) == 2) {
+            var rook = board.getPiece(rookStart(from, to));
+            board.addPiece(rookStart(from, to), null);
+            board.addPiece((from + to) / 2, rook);
+        }
+
+        board.addPiece(from, null);
+        var promotion = PackedMove.promotion(move);
+        board.addPiece(to, promotion == null ? piece : Piece.of(piece.getTeamColor(), promotion));
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
         // only set en passant for one turn
-        if (originalPiece.getPieceType() == ChessPiece.PieceType.PAWN && (abs(move.getStartPosition().getRow() - move.getEndPosition().getRow()) == 2)) {
-            this.isEnPassant = originalPiece;
-        } else {
-            this.isEnPassant = null;
+        enPassantSquare = (byte) (type == ChessPiece.PieceType.PAWN && abs(to - from) == 16 ? (from + to) / 2 : -1);
+        halfmoveClock = type == ChessPiece.PieceType.PAWN || captured != null ? 0 : halfmoveClock + 1;
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
+        teamTurn = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(ChessMove)} or {@link #makeMove(ChessMove)}
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (history.isEmpty()) {
+            throw new IllegalStateException("No move to undo");
+        }
+        var undo = history.pop();
+        var from = undo.from();
+        var to = undo.to();
+
+        board.addPiece(to, null);
+        board.addPiece(from, undo.moved());
+        if (undo.captured() != null) {
+            board.addPiece(undo.capturedSquare(), undo.captured());
+        }
+
+        if (undo.moved().getPieceType() == ChessPiece.PieceType.KING && abs((to & 7) - (from & 7)) == 2) {
+            var rookSquare = (from + to) / 2;
+            board.addPiece(rookStart(from, to), board.getPiece(rookSquare));
+            board.addPiece(rookSquare, null);
+        }
+
+        castlingRights = undo.castlingRights();
+        enPassantSquare = undo.enPassantSquare();
+        halfmoveClock = undo.halfmoveClock();
+        teamTurn = teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * @return the square of the rook that castles with a king moving from one square to the other
+     */
+    private static int rookStart(int kingFrom, int kingTo) {
+        return kingTo > kingFrom ? (kingFrom | 7) : (kingFrom & ~7);
     }
 
     /**
@@ -285,42 +299,21 @@ public class Game implements ChessGame {
      */
     @Override
     public boolean isInCheck(TeamColor teamColor) {
-
-        var kingPosition = getKingPosition(teamColor);
-
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                var curPos = new Position(i, j);
-                var piece = board.getPiece(curPos);
-                if (piece == null) continue;
-                if (!piece.getTeamColor().equals(teamColor)) {
-                    Set<ChessMove> validMoves = new HashSet<>(piece.pieceMoves(board, curPos));
-                    for (var move : validMoves) {
-                        if (move.getEndPosition().equals(kingPosition)) {
-                            return true;
-                        }
-                    }
-                }
-            }
+        var kingSquare = board.kingSquare(teamColor);
+        if (kingSquare < 0) {
+            return false;
         }
-        return false;
+        var opponent = teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        return board.isSquareAttacked(kingSquare, opponent);
     }
 
+    /**
+     * @return true if any piece of the team has a valid move
+     */
     private boolean moveAvailable(TeamColor teamColor) {
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                var curPos = new Position(i, j);
-                var piece = board.getPiece(curPos);
-                if (piece == null) continue;
-                if (piece.getTeamColor().equals(teamColor)) {
-                    Set<ChessMove> validMoves = new HashSet<>(validMoves(curPos));
-                    if (!validMoves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        var moves = new MoveList();
+        MoveGenerator.generate(board, teamColor, castlingRights(), enPassantSquare(teamColor), ~0L, moves);
+        return !moves.isEmpty();
     }
 
     /**
@@ -331,6 +324,7 @@ public class Game implements ChessGame {
      */
     @Override
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == teamTurn) return getStatus() == GameStatus.CHECKMATE;
         if (moveAvailable(teamColor)) return false;
         return isInCheck(teamColor);
     }
@@ -343,10 +337,132 @@ public class Game implements ChessGame {
      */
     @Override
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == teamTurn) return getStatus() == GameStatus.STALEMATE;
         if (moveAvailable(teamColor)) return false;
         return !isInCheck(teamColor);
     }
 
+    /**
+     * Generates the moves and looks for check once, then keeps the result until the position changes.
+     * makeMove fills it in right after the move, so the checks that follow a move are free.
+     *
+     * @return the status of the game for the team whose turn it is
+     */
+    @Override
+    public GameStatus getStatus() {
+        // keyed by position rather than cleared on each move, so changes made through getBoard() are seen too
+        var key = getZobristKey();
+        if (status == null || statusKey != key) {
+            var inCheck = isInCheck(teamTurn);
+            if (moveAvailable(teamTurn)) {
+                status = inCheck ? GameStatus.CHECK : GameStatus.ONGOING;
+            } else {
+                status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            }
+            statusKey = key;
+        }
+        return status;
+    }
+
+    /**
+     * The piece part of the key is kept up to date by the board as pieces move,
+     * the team, castling and en passant parts are combined in when asked for.
+     *
+     * @return the Zobrist key of the current position
+     */
+    @Override
+    public long getZobristKey() {
+        var key = board.key() ^ Zobrist.castling(castlingRights());
+        if (teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.side();
+        }
+        var enPassantFile = enPassantFile();
+        if (enPassantFile >= 0) {
+            key ^= Zobrist.enPassant(enPassantFile);
+        }
+        return key;
+    }
+
+    /**
+     * The stored rights are masked by where the kings and rooks stand, so a board set up by hand
+     * never castles with a piece that is not there
+     *
+     * @return a 4-bit mask of castling rights, white kingside, white queenside, black kingside, black queenside
+     * from the lowest bit up
+     */
+    public int castlingRights() {
+        if (castlingRights == 0) {
+            return 0;
+        }
+        return castlingRights & (placedRights(TeamColor.WHITE, 0) | placedRights(TeamColor.BLACK, 56) << 2);
+    }
+
+    /**
+     * @param baseSquare the square index of the team's a-file corner
+     * @return bit 0 set if the king and kingside rook are on their starting squares, bit 1 for the queenside rook
+     */
+    private int placedRights(TeamColor color, int baseSquare) {
+        if ((board.pieces(color, ChessPiece.PieceType.KING) & 1L << baseSquare + 4) == 0) {
+            return 0;
+        }
+        var rooks = board.pieces(color, ChessPiece.PieceType.ROOK);
+        return (int) (rooks >>> baseSquare + 7 & 1) | (int) (rooks >>> baseSquare & 1) << 1;
+    }
+
+    /**
+     * @return the file of the square a pawn passed over with the last move, or -1 if there is none
+     */
+    private int enPassantFile() {
+        return enPassantSquare < 0 ? -1 : enPassantSquare & 7;
+    }
+
+    /**
+     * @return the square index a pawn passed over with the last move, or -1 if there is none
+     */
+    public int enPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the square a pawn of the given color can capture en passant onto, or -1 if there is none
+     */
+    private int enPassantSquare(TeamColor color) {
+        // a square on row 6 was passed over by a black pawn, so only white can capture onto it
+        if (enPassantSquare < 0 || (color == TeamColor.WHITE) != (enPassantSquare >= 40)) {
+            return -1;
+        }
+        return enPassantSquare;
+    }
+
+    /**
+     * @return the moves by either team since the last capture or pawn move
+     */
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current move, starting at 1 and counting up after each black move
+     */
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    @Override
+    public String toFen() {
+        return Fen.write(this);
+    }
+
+    /**
+     * @return a copy of the position with its own board and no moves to undo
+     */
+    public Game copy() {
+        return new Game(board.copy(), teamTurn, castlingRights, enPassantSquare, halfmoveClock, fullmoveNumber);
+    }
+
     /**
      * Gets the current chessboard
      *
@@ -358,15 +474,19 @@ public class Game implements ChessGame {
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board,
+     * a board that is not a {@link BitBoard} is copied into one
      *
      * @param board the new board to use
      */
     @Override
     public void setBoard(ChessBoard board) {
-        this.board = board;
-        hasMoved = new HashSet<>(); // reset hasMoved for testing purposes
-        isEnPassant = null;
+        this.board = BitBoard.of(board);
+        castlingRights = ALL_CASTLING; // castling is then allowed wherever the kings and rooks stand on their starting squares
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        history.clear();
     }
 
     @Override
@@ -374,16 +494,28 @@ public class Game implements ChessGame {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Game game = (Game) o;
-        return teamTurn == game.teamTurn && Objects.equals(board, game.board) && Objects.equals(isEnPassant, game.isEnPassant) && Objects.equals(hasMoved, game.hasMoved);
+        return teamTurn == game.teamTurn && Objects.equals(board, game.board) && castlingRights() == game.castlingRights() && enPassantSquare == game.enPassantSquare;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board, isEnPassant, hasMoved);
+        return Long.hashCode(getZobristKey());
     }
 
     @Override
     public String toString() {
-        return teamTurn + "," + board.toString() + "," + isEnPassant + "," + hasMoved;
+        return teamTurn + "," + board.toString() + "," + castlingRights() + "," + enPassantSquare;
+    }
+
+    /**
+     * Everything {@link #undoMove()} needs to restore the position from before a move
+     *
+     * @param capturedSquare  where the captured piece stood, which differs from the end square for en passant
+     * @param castlingRights  the castling rights before the move
+     * @param enPassantSquare the en passant square before the move
+     * @param halfmoveClock   the halfmove clock before the move
+     */
+    private record Undo(int from, int to, ChessPiece moved, ChessPiece captured, int capturedSquare,
+                        int castlingRights, byte enPassantSquare, int halfmoveClock) {
     }
 }
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 public class Move implements ChessMove {
 
     private final ChessPosition startPosition;
@@ -60,12 +58,13 @@ public class Move implements ChessMove {
     public boolean equals(Object obj) {
         if (obj == this) return true;
         if (obj instanceof Move other)
-            return startPosition.equals(other.startPosition) && endPosition.equals(other.endPosition);
+            return startPosition.equals(other.startPosition) && endPosition.equals(other.endPosition) && promotionPiece == other.promotionPiece;
         return false;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        var hash = 31 * startPosition.hashCode() + endPosition.hashCode();
+        return 31 * hash + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
     }
 }
@@ -0,0 +1,144 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of the valid moves of one square, keyed by the Zobrist key of the position.
+ * Every copy of a game in the same position shares the entries, so observers asking about a popular game
+ * are answered without generating moves again. The cache is safe to use from many threads.
+ * <p>
+ * Entries live in a {@link ConcurrentHashMap}, so a hit takes no lock and only marks its entry as used.
+ * Eviction is the clock approximation of least recently used: a hand sweeps a ring of the entries, clearing
+ * used marks and evicting the first entry it finds unmarked. Only a miss that inserts takes the ring's lock.
+ */
+public final class MoveCache {
+
+    private final int capacity;
+    private final ConcurrentHashMap<Key, Entry> entries;
+    private final Entry[] ring;
+    private int hand;
+    private int count;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity the most entries kept before one that has not been used lately is evicted
+     */
+    public MoveCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(capacity * 4 / 3 + 1);
+        this.ring = new Entry[capacity];
+    }
+
+    /**
+     * Moves are generated outside the lock, so two threads missing on the same key may both generate them,
+     * the first to insert wins
+     *
+     * @param positionKey the Zobrist key of the position
+     * @param square      the square index of the piece
+     * @param generator   generates the moves on a miss
+     * @return the cached moves, which cannot be modified
+     */
+    public List<ChessMove> get(long positionKey, int square, Supplier<List<ChessMove>> generator) {
+        var key = new Key(positionKey, square);
+        var entry = entries.get(key);
+        if (entry != null) {
+            // skip the write when the mark is already set, so hits on a popular entry do not share a dirty line
+            if (!entry.used) {
+                entry.used = true;
+            }
+            hits.increment();
+            return entry.moves;
+        }
+        misses.increment();
+        return insert(new Entry(key, List.copyOf(generator.get())));
+    }
+
+    private List<ChessMove> insert(Entry entry) {
+        synchronized (ring) {
+            var existing = entries.get(entry.key);
+            if (existing != null) {
+                return existing.moves;
+            }
+            if (count < capacity) {
+                ring[count++] = entry;
+            } else {
+                while (ring[hand].used) {
+                    ring[hand].used = false;
+                    hand = (hand + 1) % capacity;
+                }
+                entries.remove(ring[hand].key);
+                ring[hand] = entry;
+                hand = (hand + 1) % capacity;
+            }
+            entries.put(entry.key, entry);
+            return entry.moves;
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, 0 before the first lookup
+     */
+    public double hitRate() {
+        var hits = hits();
+        var total = hits + misses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Removes every entry and resets the counters
+     */
+    public void clear() {
+        synchronized (ring) {
+            entries.clear();
+            Arrays.fill(ring, null);
+            count = 0;
+            hand = 0;
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MoveCache{size: %d/%d, hits: %d, misses: %d, hit rate: %.1f%%}",
+                size(), capacity, hits(), misses(), hitRate() * 100);
+    }
+
+    private record Key(long position, int square) {
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final List<ChessMove> moves;
+        private volatile boolean used;
+
+        private Entry(Key key, List<ChessMove> moves) {
+            this.key = key;
+            this.moves = moves;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package chess;
+
+import static chess.ChessGame.TeamColor.BLACK;
+import static chess.ChessGame.TeamColor.WHITE;
+
+/**
+ * Generates only legal moves. The checking pieces, the pinned pieces and the squares that stop a check are worked
+ * out once per position, so no move has to be played and taken back to find out if it leaves the king in check.
+ * <p>
+ * A piece that is pinned may only move along the line through its king and the pinning piece. In check, every
+ * piece but the king must capture the checker or block between it and the king, and in double check only the king
+ * may move. King moves are tested with the king lifted off the board, so it cannot step back along a checking ray.
+ * En passant removes two pieces from one row, so it is tested by looking from the king with both pawns gone.
+ * <p>
+ * Moves are added to a {@link MoveList} as {@link PackedMove packed moves}, so generating allocates nothing.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_3 = 0xFFL << 16;
+    private static final long RANK_6 = 0xFFL << 40;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * @param board           the board to generate moves on
+     * @param us              the color to generate moves for
+     * @param castlingRights  the 4-bit castling rights, white kingside, white queenside, black kingside,
+     *                        black queenside from the lowest bit up
+     * @param enPassantSquare the square a pawn of this color can capture en passant onto, or -1 if there is none
+     * @param fromMask        only pieces standing on these squares are moved, ~0 for every piece
+     * @param moves           the list the legal moves are added to
+     */
+    static void generate(BitBoard board, ChessGame.TeamColor us, int castlingRights, int enPassantSquare,
+                         long fromMask, MoveList moves) {
+        var them = us == WHITE ? BLACK : WHITE;
+        var ours = board.occupancy(us);
+        var occupied = board.occupied();
+        var king = board.kingSquare(us);
+
+        long checkers = 0L;
+        long checkMask = ~0L;
+        long pinned = 0L;
+        if (king >= 0) {
+            checkers = board.attackers(king, them, occupied);
+            if ((fromMask & 1L << king) != 0) {
+                kingMoves(board, king, them, ours, occupied, moves);
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinned(board, king, them, ours);
+        }
+
+        var pieces = ours & fromMask & ~(king >= 0 ? 1L << king : 0L);
+        while (pieces != 0) {
+            var from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            var type = board.getPiece(from).getPieceType();
+            var targets = switch (type) {
+                case PAWN -> pawnTargets(board, us, them, from);
+                case KNIGHT -> Attacks.knight(from);
+                case BISHOP -> Attacks.bishop(from, occupied);
+                case ROOK -> Attacks.rook(from, occupied);
+                case QUEEN -> Attacks.queen(from, occupied);
+                case KING -> Attacks.king(from);
+            } & ~ours & checkMask;
+            if ((pinned & 1L << from) != 0) {
+                targets &= Attacks.line(king, from);
+            }
+            addMoves(board, them, from, targets, type == ChessPiece.PieceType.PAWN, moves);
+        }
+
+        if (enPassantSquare >= 0) {
+            enPassantMoves(board, us, them, king, enPassantSquare, ours & fromMask, checkMask, moves);
+        }
+        if (king >= 0 && checkers == 0 && (fromMask & 1L << king) != 0) {
+            castleMoves(board, us, them, king, castlingRights, occupied, moves);
+        }
+    }
+
+    /**
+     * @return the pieces of our color that are the only piece between the king and an enemy slider
+     */
+    private static long pinned(BitBoard board, int king, ChessGame.TeamColor them, long ours) {
+        var queens = board.pieces(them, ChessPiece.PieceType.QUEEN);
+        // sliders that would attack the king if nothing stood in the way
+        var snipers = (Attacks.rook(king, 0L) & (board.pieces(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, 0L) & (board.pieces(them, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            var sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            var blockers = Attacks.between(king, sniper) & board.occupied();
+            if (Long.bitCount(blockers) == 1 && (blockers & ours) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    private static void kingMoves(BitBoard board, int king, ChessGame.TeamColor them, long ours, long occupied,
+                                  MoveList moves) {
+        var withoutKing = occupied & ~(1L << king);
+        var targets = Attacks.king(king) & ~ours;
+        while (targets != 0) {
+            var to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.attackers(to, them, withoutKing) == 0) {
+                moves.add(PackedMove.of(king, to, null, (board.occupancy(them) & 1L << to) != 0 ? PackedMove.CAPTURE : 0));
+            }
+        }
+    }
+
+    /**
+     * @return the squares a pawn can reach with pushes and captures, excluding en passant
+     */
+    static long pawnTargets(BitBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int from) {
+        var empty = ~board.occupied();
+        var bit = 1L << from;
+        long pushes;
+        if (us == WHITE) {
+            pushes = (bit << 8) & empty;
+            pushes |= ((pushes & RANK_3) << 8) & empty;
+        } else {
+            pushes = (bit >>> 8) & empty;
+            pushes |= ((pushes & RANK_6) >>> 8) & empty;
+        }
+        return pushes | (Attacks.pawn(us, from) & board.occupancy(them));
+    }
+
+    private static void enPassantMoves(BitBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king,
+                                       int target, long movable, long checkMask, MoveList moves) {
+        var captured = us == WHITE ? target - 8 : target + 8;
+        // the capture stops a check by removing the checking pawn, or by landing between a slider and the king
+        if ((checkMask & (1L << captured | 1L << target)) == 0) {
+            return;
+        }
+        // our pawns that attack the target square are the ones a pawn of their color on the target would attack
+        var capturers = Attacks.pawn(them, target) & board.pieces(us, ChessPiece.PieceType.PAWN) & movable;
+        while (capturers != 0) {
+            var from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            if (king >= 0) {
+                var occupied = (board.occupied() & ~(1L << from | 1L << captured)) | 1L << target;
+                var queens = board.pieces(them, ChessPiece.PieceType.QUEEN);
+                var rooks = (board.pieces(them, ChessPiece.PieceType.ROOK) | queens) & ~(1L << captured);
+                var bishops = (board.pieces(them, ChessPiece.PieceType.BISHOP) | queens) & ~(1L << captured);
+                if ((Attacks.rook(king, occupied) & rooks) != 0 || (Attacks.bishop(king, occupied) & bishops) != 0) {
+                    continue;
+                }
+            }
+            moves.add(PackedMove.of(from, target, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+        }
+    }
+
+    private static void castleMoves(BitBoard board, ChessGame.TeamColor us, ChessGame.TeamColor them, int king,
+                                    int castlingRights, long occupied, MoveList moves) {
+        var rights = castlingRights >> (us == WHITE ? 0 : 2);
+        if (canCastle(board, them, king, rights, true, occupied)) {
+            moves.add(PackedMove.of(king, king + 2, null, PackedMove.CASTLE));
+        }
+        if (canCastle(board, them, king, rights, false, occupied)) {
+            moves.add(PackedMove.of(king, king - 2, null, PackedMove.CASTLE));
+        }
+    }
+
+    /**
+     * The rights already guarantee the king and rook stand on their starting squares,
+     * so only the squares between them and the squares the king crosses are tested, the king must not be in check
+     *
+     * @param rights the castling rights of the moving color, bit 0 for kingside and bit 1 for queenside
+     */
+    private static boolean canCastle(BitBoard board, ChessGame.TeamColor them, int king, int rights, boolean kingside,
+                                     long occupied) {
+        if (kingside) {
+            return (rights & 1) != 0 && (occupied & (1L << king + 1 | 1L << king + 2)) == 0
+                    && !board.isSquareAttacked(king + 1, them) && !board.isSquareAttacked(king + 2, them);
+        }
+        return (rights & 2) != 0 && (occupied & (1L << king - 1 | 1L << king - 2 | 1L << king - 3)) == 0
+                && !board.isSquareAttacked(king - 1, them) && !board.isSquareAttacked(king - 2, them);
+    }
+
+    /**
+     * Tests one move without generating any others. It checks the geometry of the piece, blockers, promotion,
+     * castling and en passant, then looks from the king with the occupancy after the move to test king safety.
+     * It agrees with {@link #generate} on every move.
+     *
+     * @param move a packed move, its flags are ignored
+     * @return true if the move is legal for the given color
+     */
+    static boolean isLegal(BitBoard board, ChessGame.TeamColor us, int castlingRights, int enPassantSquare, int move) {
+        var from = PackedMove.from(move);
+        var to = PackedMove.to(move);
+        var piece = board.getPiece(from);
+        if (piece == null || piece.getTeamColor() != us || (board.occupancy(us) & 1L << to) != 0) {
+            return false;
+        }
+        var them = us == WHITE ? BLACK : WHITE;
+        var occupied = board.occupied();
+        var type = piece.getPieceType();
+        var promotion = PackedMove.promotion(move);
+        var king = board.kingSquare(us);
+        var captured = board.occupancy(them) & 1L << to;
+
+        if (type == ChessPiece.PieceType.PAWN) {
+            var promotes = ((1L << to) & (RANK_1 | RANK_8)) != 0;
+            if (promotes != (promotion != null) || promotion == ChessPiece.PieceType.KING || promotion == ChessPiece.PieceType.PAWN) {
+                return false;
+            }
+            if (to == enPassantSquare && (Attacks.pawn(us, from) & 1L << to) != 0) {
+                captured = 1L << (us == WHITE ? to - 8 : to + 8);
+            } else if ((pawnTargets(board, us, them, from) & 1L << to) == 0) {
+                return false;
+            }
+        } else {
+            if (promotion != null) {
+                return false;
+            }
+            if (from == king && (from >> 3) == (to >> 3) && (to - from == 2 || from - to == 2)) {
+                var rights = castlingRights >> (us == WHITE ? 0 : 2);
+                return !board.isSquareAttacked(king, them) && canCastle(board, them, king, rights, to > from, occupied);
+            }
+            var targets = switch (type) {
+                case KNIGHT -> Attacks.knight(from);
+                case BISHOP -> Attacks.bishop(from, occupied);
+                case ROOK -> Attacks.rook(from, occupied);
+                case QUEEN -> Attacks.queen(from, occupied);
+                default -> Attacks.king(from);
+            };
+            if ((targets & 1L << to) == 0) {
+                return false;
+            }
+        }
+
+        if (king < 0) {
+            return true;
+        }
+        if (from == king) {
+            return board.attackers(to, them, occupied & ~(1L << from)) == 0;
+        }
+        // the captured piece is still in the piece bitboards, so it is masked out of the attackers
+        var after = (occupied & ~(1L << from | captured)) | 1L << to;
+        return (board.attackers(king, them, after) & ~captured) == 0;
+    }
+
+    private static void addMoves(BitBoard board, ChessGame.TeamColor them, int from, long targets, boolean isPawn,
+                                 MoveList moves) {
+        var enemy = board.occupancy(them);
+        while (targets != 0) {
+            var to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            var flags = (enemy & 1L << to) != 0 ? PackedMove.CAPTURE : 0;
+            if (isPawn && ((1L << to) & (RANK_1 | RANK_8)) != 0) {
+                for (var promotionPiece : PROMOTION_TYPES) {
+                    moves.add(PackedMove.of(from, to, promotionPiece, flags));
+                }
+            } else {
+                if (isPawn && (to - from == 16 || from - to == 16)) {
+                    flags |= PackedMove.DOUBLE_PUSH;
+                }
+                moves.add(PackedMove.of(from, to, null, flags));
+            }
+        }
+    }
+}
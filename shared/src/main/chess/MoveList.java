@@ -0,0 +1,95 @@
+package chess;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of {@link PackedMove packed moves} backed by an int array.
+ * Clearing keeps the array, so one list per search ply can be filled again and again without allocating.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return true if the list holds a move with the same start, end and promotion, ignoring flags
+     */
+    public boolean contains(int move) {
+        var key = PackedMove.key(move);
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.key(moves[i]) == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Swaps two moves, used to sort the list in place during search
+     */
+    public void swap(int i, int j) {
+        var move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    /**
+     * @return a read-only view of the list as {@link ChessMove} objects, each one created when it is read
+     */
+    public List<ChessMove> asChessMoves() {
+        return new AbstractList<>() {
+            @Override
+            public ChessMove get(int index) {
+                return PackedMove.toMove(MoveList.this.get(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
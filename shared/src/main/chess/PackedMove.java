@@ -0,0 +1,82 @@
+package chess;
+
+/**
+ * Packs a move into the bits of an int, so move generation and search can pass moves around without allocating.
+ * <pre>
+ * bits  0-5   start square index
+ * bits  6-11  end square index
+ * bits 12-14  promotion piece, the {@link ChessPiece.PieceType} ordinal plus one, 0 for no promotion
+ * bits 15-18  flags: capture, en passant, castle, double pawn push
+ * </pre>
+ * The flags are set by the move generator for move ordering, two packed moves are the same move
+ * when their {@link #key(int)} matches.
+ */
+public final class PackedMove {
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    private static final int KEY_MASK = (1 << 15) - 1;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    /**
+     * @return a packed move with no promotion and no flags
+     */
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    /**
+     * @param promotion the piece a pawn promotes to, or null
+     * @param flags     any of the flag constants ORed together
+     */
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | to << 6 | (promotion == null ? 0 : (promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    /**
+     * @return the packed form of a move, without flags
+     */
+    public static int of(ChessMove move) {
+        return of(BitBoard.square(move.getStartPosition()), BitBoard.square(move.getEndPosition()), move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        var promotion = move >>> 12 & 7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    /**
+     * @return the start square, end square and promotion without the flags
+     */
+    public static int key(int move) {
+        return move & KEY_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return a {@link Move} for callers that work with {@link ChessMove}
+     */
+    public static ChessMove toMove(int move) {
+        return new Move(BitBoard.position(from(move)), BitBoard.position(to(move)), promotion(move));
+    }
+}
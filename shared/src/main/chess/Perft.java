@@ -0,0 +1,155 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. Comparing the counts against known values
+ * proves the move generator correct, and timing them measures its throughput.
+ * <p>
+ * Run with {@code <depth> [fen]} to print a divide of the position, or {@code --suite [maxNodes]} to run
+ * every standard position up to the deepest depth with at most maxNodes leaf nodes.
+ */
+public final class Perft {
+
+    /**
+     * Standard perft positions with their known node counts, nodes[i] is the count at depth i + 1
+     */
+    public static final List<Entry> SUITE = List.of(
+            new Entry("start", Fen.START,
+                    20, 400, 8_902, 197_281, 4_865_609),
+            new Entry("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2_039, 97_862, 4_085_603),
+            new Entry("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2_812, 43_238, 674_624),
+            new Entry("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9_467, 422_333),
+            new Entry("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1_486, 62_379, 2_103_487),
+            new Entry("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2_079, 89_890, 3_894_594)
+    );
+
+    private Perft() {
+    }
+
+    /**
+     * @param game  the position to count from, it is returned to the same position afterwards
+     * @param depth the number of plies to search
+     * @return the number of leaf nodes at the given depth
+     */
+    public static long perft(Game game, int depth) {
+        var lists = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    /**
+     * @param lists one move list per remaining ply, reused for every node at that ply
+     */
+    private static long perft(Game game, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        var moves = lists[depth - 1];
+        game.legalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the number of leaf nodes under each legal move of the position
+     */
+    public static Map<ChessMove, Long> divide(Game game, int depth) {
+        Map<ChessMove, Long> result = new LinkedHashMap<>();
+        for (var move : game.legalMoves()) {
+            game.doMove(move);
+            result.put(move, perft(game, depth - 1));
+            game.undoMove();
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft <depth> [fen] | --suite [maxNodes]");
+            return;
+        }
+        if (args[0].equals("--suite")) {
+            var maxNodes = args.length > 1 ? Long.parseLong(args[1]) : 5_000_000L;
+            var failures = runSuite(maxNodes);
+            System.exit(failures == 0 ? 0 : 1);
+        }
+
+        var depth = Integer.parseInt(args[0]);
+        var fen = args.length > 1 ? String.join(" ", List.of(args).subList(1, args.length)) : Fen.START;
+        var game = Fen.parse(fen);
+        var start = System.nanoTime();
+        long total = 0;
+        for (var entry : divide(game, depth).entrySet()) {
+            System.out.printf("%s: %d%n", uci(entry.getKey()), entry.getValue());
+            total += entry.getValue();
+        }
+        var seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%nNodes: %d%nTime: %.3fs%nNodes/sec: %.0f%n", total, seconds, total / seconds);
+    }
+
+    /**
+     * Runs every suite position at each depth whose expected count is at most maxNodes
+     *
+     * @return the number of counts that did not match
+     */
+    private static int runSuite(long maxNodes) {
+        int failures = 0;
+        long totalNodes = 0;
+        var totalStart = System.nanoTime();
+        for (var entry : SUITE) {
+            for (int depth = 1; depth <= entry.nodes().length && entry.nodes()[depth - 1] <= maxNodes; depth++) {
+                var start = System.nanoTime();
+                var nodes = perft(Fen.parse(entry.fen()), depth);
+                var seconds = (System.nanoTime() - start) / 1e9;
+                var expected = entry.nodes()[depth - 1];
+                totalNodes += nodes;
+                if (nodes != expected) {
+                    failures++;
+                }
+                System.out.printf("%-10s depth %d: %10d %s (%.3fs, %.0f nodes/sec)%n", entry.name(), depth, nodes,
+                        nodes == expected ? "ok" : "FAILED, expected " + expected, seconds, nodes / seconds);
+            }
+        }
+        var seconds = (System.nanoTime() - totalStart) / 1e9;
+        System.out.printf("%nTotal: %d nodes in %.3fs, %.0f nodes/sec, %d failed%n", totalNodes, seconds, totalNodes / seconds, failures);
+        return failures;
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e7e8q
+     */
+    private static String uci(ChessMove move) {
+        var promotion = move.getPromotionPiece() == null ? "" : switch (move.getPromotionPiece()) {
+            case QUEEN -> "q";
+            case ROOK -> "r";
+            case BISHOP -> "b";
+            case KNIGHT -> "n";
+            default -> "";
+        };
+        return move.getStartPosition().toString() + move.getEndPosition() + promotion;
+    }
+
+    /**
+     * A named position with its known perft node counts
+     */
+    public record Entry(String name, String fen, long... nodes) {
+    }
+}
@@ -0,0 +1,163 @@
+package chess;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game in Portable Game Notation: its tag pairs, its moves in SAN and its result.
+ * Games are read from a stream by {@link PgnReader}, replayed through a {@link Game} to check them,
+ * and written back out in the export format with the seven tag roster first and lines of at most 79 characters.
+ *
+ * @param tags   the tag pairs in the order they were read
+ * @param moves  the moves of the main line in SAN, comments, variations and annotations left out
+ * @param result 1-0, 0-1, 1/2-1/2 or * for a game still in progress
+ * @param line   the line of the source the game starts on, 0 for games not read from a source
+ */
+public record Pgn(Map<String, String> tags, List<String> moves, String result, long line) {
+
+    /**
+     * The tags every exported game has, in export order
+     */
+    public static final List<String> SEVEN_TAG_ROSTER = List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+
+    private static final int LINE_LENGTH = 79;
+
+    /**
+     * Builds a game record from moves played from a starting position. A start other than the standard one
+     * is recorded in the SetUp and FEN tags.
+     *
+     * @param tags   tag pairs, the Result tag is set from the result
+     * @param start  the position before the first move, it is left unchanged
+     * @param moves  legal moves played in order from the start
+     * @param result 1-0, 0-1, 1/2-1/2 or *
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public static Pgn of(Map<String, String> tags, Game start, List<ChessMove> moves, String result) {
+        var allTags = new LinkedHashMap<>(tags);
+        allTags.put("Result", result);
+        var fen = start.toFen();
+        if (!fen.equals(Fen.START)) {
+            allTags.put("SetUp", "1");
+            allTags.put("FEN", fen);
+        }
+
+        var game = start.copy();
+        var list = new MoveList();
+        List<String> sans = new ArrayList<>(moves.size());
+        for (var move : moves) {
+            var packed = PackedMove.of(move);
+            if (!game.isLegal(move)) {
+                throw new IllegalArgumentException("Illegal move " + move + " at ply " + (sans.size() + 1));
+            }
+            sans.add(San.write(game, packed, list));
+            game.doMove(packed);
+        }
+        return new Pgn(allTags, sans, result, 0);
+    }
+
+    /**
+     * @return the position before the first move, from the FEN tag if there is one
+     * @throws IllegalArgumentException if the FEN tag is not valid
+     */
+    public Game start() {
+        var fen = tags.get("FEN");
+        return fen == null ? new Game() : Fen.parse(fen);
+    }
+
+    /**
+     * Plays every move from the start position
+     *
+     * @return the final position
+     * @throws IllegalArgumentException naming the ply of the first move that is not legal or not SAN
+     */
+    public Game replay() {
+        var game = start();
+        var list = new MoveList();
+        for (int ply = 0; ply < moves.size(); ply++) {
+            try {
+                game.doMove(San.parse(game, moves.get(ply), list));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Ply " + (ply + 1) + ", " + moveNumber(game) + " " + moves.get(ply)
+                        + ": " + e.getMessage(), e);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Writes the game in the export format followed by a blank line, so games can be written one after another
+     */
+    public void write(Appendable out) throws IOException {
+        for (var name : SEVEN_TAG_ROSTER) {
+            var value = name.equals("Result") ? result : tags.getOrDefault(name, "?");
+            writeTag(out, name, value);
+        }
+        for (var tag : tags.entrySet()) {
+            if (!SEVEN_TAG_ROSTER.contains(tag.getKey())) {
+                writeTag(out, tag.getKey(), tag.getValue());
+            }
+        }
+        out.append('\n');
+
+        // the move numbers follow the start position, a game may start with black to move
+        var start = tags.containsKey("FEN") ? start() : null;
+        var number = start == null ? 1 : start.fullmoveNumber();
+        var black = start != null && start.getTeamTurn() == ChessGame.TeamColor.BLACK;
+        var line = new StringBuilder(LINE_LENGTH + 16);
+        for (int ply = 0; ply < moves.size(); ply++) {
+            if (!black) {
+                append(out, line, number + ".");
+            } else if (ply == 0) {
+                append(out, line, number + "...");
+            }
+            append(out, line, moves.get(ply));
+            if (black) {
+                number++;
+            }
+            black = !black;
+        }
+        append(out, line, result);
+        out.append(line).append("\n\n");
+    }
+
+    private static void writeTag(Appendable out, String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\"]\n");
+    }
+
+    /**
+     * Adds a token to the current line, starting a new line first if the token would not fit
+     */
+    private static void append(Appendable out, StringBuilder line, String token) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    /**
+     * @return the move number as written before the move about to be played, such as 12. or 12...
+     */
+    private static String moveNumber(Game game) {
+        return game.fullmoveNumber() + (game.getTeamTurn() == ChessGame.TeamColor.WHITE ? "." : "...");
+    }
+
+    /**
+     * @return the result of a game that has ended on the board, or * if it is still in progress
+     */
+    public static String result(ChessGame game) {
+        return switch (game.getStatus()) {
+            case CHECKMATE -> game.getTeamTurn() == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+            case STALEMATE -> "1/2-1/2";
+            default -> "*";
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads PGN games one at a time from a stream, so an archive of any size needs only the game being read in memory.
+ * <p>
+ * The reader keeps the tag pairs and the main line. Comments in braces or after a semicolon, recursive variations,
+ * numeric annotation glyphs, move numbers and lines escaped with % are skipped. A game ends at its result, or at the
+ * next tag section or the end of the stream for files that leave the result off. Moves are not checked here,
+ * see {@link Pgn#replay()}.
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder(16);
+    private int position;
+    private int limit;
+    private long line = 1;
+    private boolean lineStart = true;
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next game, or null at the end of the stream
+     * @throws IOException if the stream cannot be read or a tag pair or comment is cut off by its end
+     */
+    public Pgn next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>();
+        long start = 0;
+        for (int c; (c = peek()) >= 0; ) {
+            if (Character.isWhitespace(c)) {
+                read();
+                continue;
+            }
+            if (c == '%' && lineStart) {
+                skipLine();
+                continue;
+            }
+            if (start == 0) {
+                start = line;
+            }
+            switch (c) {
+                case '[' -> {
+                    if (!moves.isEmpty()) {
+                        // a new tag section without a result ends the game before it
+                        return new Pgn(tags, moves, tags.getOrDefault("Result", "*"), start);
+                    }
+                    readTag(tags);
+                }
+                case '{' -> skipComment();
+                case ';' -> skipLine();
+                case '(' -> skipVariation();
+                case ')' -> throw new IOException("Unmatched ) on line " + line);
+                default -> {
+                    var word = readToken();
+                    if (isResult(word)) {
+                        return new Pgn(tags, moves, word, start);
+                    }
+                    var move = stripMoveNumber(word);
+                    if (!move.isEmpty() && move.charAt(0) != '$') {
+                        moves.add(move);
+                    }
+                }
+            }
+        }
+        return start == 0 ? null : new Pgn(tags, moves, tags.getOrDefault("Result", "*"), start);
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        var tagLine = line;
+        read();
+        token.setLength(0);
+        for (int c; (c = peek()) >= 0 && !Character.isWhitespace(c) && c != '"' && c != ']'; ) {
+            token.append((char) read());
+        }
+        var name = token.toString();
+        skipSpaces();
+        if (read() != '"') {
+            throw new IOException("Tag " + name + " on line " + tagLine + " has no quoted value");
+        }
+        token.setLength(0);
+        for (int c; (c = read()) != '"'; ) {
+            if (c < 0) {
+                throw new IOException("Tag " + name + " on line " + tagLine + " is not closed");
+            }
+            token.append((char) (c == '\\' ? read() : c));
+        }
+        skipSpaces();
+        if (read() != ']') {
+            throw new IOException("Tag " + name + " on line " + tagLine + " is not closed");
+        }
+        tags.put(name, token.toString());
+    }
+
+    /**
+     * Reads a move, move number, result or annotation glyph, up to the next space or bracket
+     */
+    private String readToken() throws IOException {
+        token.setLength(0);
+        for (int c; (c = peek()) >= 0 && !Character.isWhitespace(c) && "[]{}();".indexOf(c) < 0; ) {
+            token.append((char) read());
+        }
+        if (token.isEmpty()) {
+            throw new IOException("Unexpected " + (char) peek() + " on line " + line);
+        }
+        return token.toString();
+    }
+
+    private void skipComment() throws IOException {
+        var commentLine = line;
+        for (int c; (c = read()) != '}'; ) {
+            if (c < 0) {
+                throw new IOException("Comment on line " + commentLine + " is not closed");
+            }
+        }
+    }
+
+    /**
+     * Skips a variation and any variations and comments inside it
+     */
+    private void skipVariation() throws IOException {
+        var variationLine = line;
+        read();
+        for (int depth = 1; depth > 0; ) {
+            var c = peek();
+            if (c < 0) {
+                throw new IOException("Variation on line " + variationLine + " is not closed");
+            }
+            switch (c) {
+                case '{' -> skipComment();
+                case ';' -> skipLine();
+                case '(' -> {
+                    read();
+                    depth++;
+                }
+                case ')' -> {
+                    read();
+                    depth--;
+                }
+                default -> read();
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        var c = read();
+        while (c >= 0 && c != '\n') {
+            c = read();
+        }
+    }
+
+    private void skipSpaces() throws IOException {
+        while (peek() >= 0 && Character.isWhitespace(peek())) {
+            read();
+        }
+    }
+
+    private static boolean isResult(String word) {
+        return word.equals("1-0") || word.equals("0-1") || word.equals("1/2-1/2") || word.equals("*");
+    }
+
+    /**
+     * @return the token without a leading move number such as 12. or 12..., which may be written against the move
+     */
+    private static String stripMoveNumber(String word) {
+        var i = 0;
+        while (i < word.length() && Character.isDigit(word.charAt(i))) {
+            i++;
+        }
+        if (i == word.length() || word.charAt(i) != '.') {
+            return i == word.length() ? "" : word;
+        }
+        while (i < word.length() && word.charAt(i) == '.') {
+            i++;
+        }
+        return word.substring(i);
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        var c = peek();
+        if (c >= 0) {
+            position++;
+            lineStart = c == '\n';
+            if (lineStart) {
+                line++;
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,181 @@
+package chess;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Checks that every game of a PGN archive is legal by replaying it. One thread reads games from the stream in
+ * batches while a fork-join pool replays them, and only a few batches are held at a time, so archives of any size
+ * run in a small amount of memory.
+ * <p>
+ * Run with {@code <file.pgn> [threads]}, it prints each game that fails and then the games, plies and errors found
+ * with the games and plies replayed per second.
+ */
+public final class PgnValidator {
+
+    /**
+     * Games read before a batch is handed to the pool
+     */
+    private static final int BATCH_SIZE = 1_024;
+
+    /**
+     * Games a task replays itself rather than splitting in two
+     */
+    private static final int SPLIT_SIZE = 32;
+
+    private PgnValidator() {
+    }
+
+    /**
+     * Replays every game in the stream. Failures are reported in the order the games appear.
+     *
+     * @param in       the PGN text, read once from start to end
+     * @param pool     the pool that replays the games
+     * @param failures called on the reading thread for each game that does not replay
+     * @return the totals for the whole stream
+     * @throws IOException if the stream cannot be read or is not PGN
+     */
+    public static Summary validate(Reader in, ForkJoinPool pool, Consumer<Failure> failures) throws IOException {
+        var start = System.nanoTime();
+        var reader = new PgnReader(in);
+        var pending = new ArrayDeque<ForkJoinTask<Tally>>();
+        var total = new Tally();
+        long index = 0;
+        List<Pgn> batch = new ArrayList<>(BATCH_SIZE);
+        for (var pgn = reader.next(); pgn != null; pgn = reader.next()) {
+            batch.add(pgn);
+            if (batch.size() == BATCH_SIZE) {
+                pending.add(pool.submit(new Replay(batch, index, 0, batch.size())));
+                index += batch.size();
+                batch = new ArrayList<>(BATCH_SIZE);
+                // two batches per thread keep the pool busy while the reader fills the next one
+                while (pending.size() > 2 * pool.getParallelism()) {
+                    total.add(pending.poll().join(), failures);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            pending.add(pool.submit(new Replay(batch, index, 0, batch.size())));
+        }
+        while (!pending.isEmpty()) {
+            total.add(pending.poll().join(), failures);
+        }
+        return new Summary(total.games, total.plies, total.errors, System.nanoTime() - start);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: PgnValidator <file.pgn> [threads]");
+            return;
+        }
+        var threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var pool = new ForkJoinPool(threads);
+        Summary summary;
+        try (var in = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            summary = validate(in, pool, failure -> System.out.printf("Game %d (line %d): %s%n",
+                    failure.game(), failure.line(), failure.message()));
+        } finally {
+            pool.shutdown();
+        }
+        var seconds = summary.nanos() / 1e9;
+        System.out.printf("%nGames: %d%nPlies: %d%nErrors: %d%nTime: %.3fs on %d threads%nGames/sec: %.0f%nPlies/sec: %.0f%n",
+                summary.games(), summary.plies(), summary.errors(), seconds, threads, summary.games() / seconds,
+                summary.plies() / seconds);
+        System.exit(summary.errors() == 0 ? 0 : 1);
+    }
+
+    /**
+     * Replays a range of a batch, splitting it in halves until the ranges are small
+     */
+    private static final class Replay extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Pgn> batch;
+        private final long firstGame;
+        private final int from;
+        private final int to;
+
+        private Replay(List<Pgn> batch, long firstGame, int from, int to) {
+            this.batch = batch;
+            this.firstGame = firstGame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > SPLIT_SIZE) {
+                var middle = (from + to) >>> 1;
+                var left = new Replay(batch, firstGame, from, middle);
+                left.fork();
+                var right = new Replay(batch, firstGame, middle, to).compute();
+                return left.join().merge(right);
+            }
+            var tally = new Tally();
+            for (int i = from; i < to; i++) {
+                var pgn = batch.get(i);
+                tally.games++;
+                try {
+                    pgn.replay();
+                    tally.plies += pgn.moves().size();
+                } catch (IllegalArgumentException e) {
+                    tally.errors++;
+                    tally.failures.add(new Failure(firstGame + i + 1, pgn.line(), e.getMessage()));
+                }
+            }
+            return tally;
+        }
+    }
+
+    /**
+     * Counts for a range of games, with its failures in game order
+     */
+    private static final class Tally {
+        private long games;
+        private long plies;
+        private long errors;
+        private final List<Failure> failures = new ArrayList<>();
+
+        private Tally merge(Tally later) {
+            games += later.games;
+            plies += later.plies;
+            errors += later.errors;
+            failures.addAll(later.failures);
+            return this;
+        }
+
+        private void add(Tally batch, Consumer<Failure> report) {
+            games += batch.games;
+            plies += batch.plies;
+            errors += batch.errors;
+            batch.failures.forEach(report);
+        }
+    }
+
+    /**
+     * A game that does not replay
+     *
+     * @param game    the number of the game in the stream, counting from 1
+     * @param line    the line the game starts on
+     * @param message the ply and move that failed and why
+     */
+    public record Failure(long game, long line, String message) {
+    }
+
+    /**
+     * @param plies the plies of the games that replay
+     * @param nanos the time taken to read and replay the stream
+     */
+    public record Summary(long games, long plies, long errors, long nanos) {
+    }
+}
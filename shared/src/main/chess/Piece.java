@@ -2,25 +2,41 @@ package chess;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 
 public class Piece implements ChessPiece {
 
-    private static int counter = 1;
+    private static final Direction[] KING_DIRECTIONS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.UP_LEFT, Direction.UP_RIGHT, Direction.DOWN_LEFT, Direction.DOWN_RIGHT};
+    private static final Direction[] KNIGHT_DIRECTIONS = {Direction.K_UP_LEFT, Direction.K_UP_RIGHT, Direction.K_DOWN_LEFT, Direction.K_DOWN_RIGHT, Direction.K_LEFT_UP, Direction.K_LEFT_DOWN, Direction.K_RIGHT_UP, Direction.K_RIGHT_DOWN};
+    private static final Direction[] ROOK_DIRECTIONS = {Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT};
+    private static final Direction[] BISHOP_DIRECTIONS = {Direction.UP_LEFT, Direction.UP_RIGHT, Direction.DOWN_LEFT, Direction.DOWN_RIGHT};
+    private static final PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private static final Piece[] PIECES = new Piece[12];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new Piece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final PieceType pieceType;
-    private int id = counter++;
 
     public Piece(ChessGame.TeamColor teamColor, PieceType pieceType) {
         this.teamColor = teamColor;
         this.pieceType = pieceType;
     }
 
-    public Piece(ChessGame.TeamColor teamColor, PieceType pieceType, int id) {
-        this.teamColor = teamColor;
-        this.pieceType = pieceType;
-        this.id = id;
+    /**
+     * Pieces hold no state beyond their color and type, so one instance of each is shared by every board
+     *
+     * @return the shared piece of the given color and type
+     */
+    public static Piece of(ChessGame.TeamColor teamColor, PieceType pieceType) {
+        return PIECES[teamColor.ordinal() * 6 + pieceType.ordinal()];
     }
 
     /**
@@ -54,6 +70,10 @@ public class Piece implements ChessPiece {
             return new HashSet<>();
         }
 
+        if (board instanceof BitBoard bitBoard) {
+            return bitBoardMoves(bitBoard, BitBoard.square(myPosition));
+        }
+
         return switch (pieceType) {
             case PAWN -> pawnMoves(board, myPosition);
             case ROOK -> rookMoves(board, myPosition);
@@ -64,6 +84,44 @@ public class Piece implements ChessPiece {
         };
     }
 
+    /**
+     * Looks up the moves in the precomputed {@link Attacks} tables instead of walking the board
+     *
+     * @param board  the bitboard the piece is on
+     * @param square the square index of the piece
+     * @return Collection of valid moves
+     */
+    private Collection<ChessMove> bitBoardMoves(BitBoard board, int square) {
+        var occupied = board.occupied();
+        var targets = switch (pieceType) {
+            case PAWN -> MoveGenerator.pawnTargets(board, teamColor, teamColor == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE, square);
+            case ROOK -> Attacks.rook(square, occupied);
+            case KNIGHT -> Attacks.knight(square);
+            case BISHOP -> Attacks.bishop(square, occupied);
+            case QUEEN -> Attacks.queen(square, occupied);
+            case KING -> Attacks.king(square);
+        };
+        targets &= ~board.occupancy(teamColor);
+
+        Set<ChessMove> validMoves = new HashSet<>();
+        var from = BitBoard.position(square);
+        var promotionRow = (teamColor == ChessGame.TeamColor.WHITE) ? 8 : 1;
+        while (targets != 0) {
+            var to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            var position = BitBoard.position(to);
+            if (pieceType == PieceType.PAWN && position.getRow() == promotionRow) {
+                for (var promotionPiece : PROMOTION_TYPES) {
+                    validMoves.add(new Move(from, position, promotionPiece));
+                }
+            } else {
+                validMoves.add(new Move(from, position));
+            }
+        }
+        return validMoves;
+    }
+
     /**
      * @return true if the position is on the board
      */
@@ -99,10 +157,10 @@ public class Piece implements ChessPiece {
         int promotionRow = (teamColor == ChessGame.TeamColor.WHITE) ? 8 : 1;
         int direction = (teamColor == ChessGame.TeamColor.WHITE) ? 1 : -1;
 
-        var forwardOne = new Position(myPosition.getRow() + direction, myPosition.getColumn());
-        var forwardTwo = new Position(myPosition.getRow() + 2 * direction, myPosition.getColumn());
-        var captureLeft = new Position(myPosition.getRow() + direction, myPosition.getColumn() - 1);
-        var captureRight = new Position(myPosition.getRow() + direction, myPosition.getColumn() + 1);
+        var forwardOne = Position.of(myPosition.getRow() + direction, myPosition.getColumn());
+        var forwardTwo = Position.of(myPosition.getRow() + 2 * direction, myPosition.getColumn());
+        var captureLeft = Position.of(myPosition.getRow() + direction, myPosition.getColumn() - 1);
+        var captureRight = Position.of(myPosition.getRow() + direction, myPosition.getColumn() + 1);
 
         for (var position : new Position[]{forwardOne, forwardTwo, captureLeft, captureRight}) {
             if (isValidMove(board, myPosition, position)) {
@@ -120,7 +178,7 @@ public class Piece implements ChessPiece {
                 }
                 // promotion case
                 if (position.getRow() == promotionRow) {
-                    for (var promotionPiece : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT}) {
+                    for (var promotionPiece : PROMOTION_TYPES) {
                         validMoves.add(new Move(myPosition, position, promotionPiece));
                     }
                 } else {
@@ -140,19 +198,19 @@ public class Piece implements ChessPiece {
      * @param direction  the initial direction of the movement
      */
     private void extendMove(ChessBoard board, ChessPosition myPosition, Set<ChessMove> validMoves, Direction direction) {
-        var position = new Position(myPosition.getRow() + direction.getRowChange(), myPosition.getColumn() + direction.getColChange());
+        var position = Position.of(myPosition.getRow() + direction.getRowChange(), myPosition.getColumn() + direction.getColChange());
         while (isValidMove(board, myPosition, position)) {
             validMoves.add(new Move(myPosition, position));
             if (board.getPiece(position) != null && board.getPiece(myPosition).getTeamColor() != board.getPiece(position).getTeamColor()) {
                 break; // break if capture
             }
-            position = new Position(position.getRow() + direction.getRowChange(), position.getColumn() + direction.getColChange());
+            position = Position.of(position.getRow() + direction.getRowChange(), position.getColumn() + direction.getColChange());
         }
     }
 
     private Collection<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
         Set<ChessMove> validMoves = new HashSet<>();
-        for (var direction : new Direction[]{Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT}) {
+        for (var direction : ROOK_DIRECTIONS) {
             extendMove(board, myPosition, validMoves, direction);
         }
         return validMoves;
@@ -160,7 +218,7 @@ public class Piece implements ChessPiece {
 
     private Collection<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
         Set<ChessMove> validMoves = new HashSet<>();
-        for (var direction : new Direction[]{Direction.UP_LEFT, Direction.UP_RIGHT, Direction.DOWN_LEFT, Direction.DOWN_RIGHT}) {
+        for (var direction : BISHOP_DIRECTIONS) {
             extendMove(board, myPosition, validMoves, direction);
         }
         return validMoves;
@@ -181,8 +239,8 @@ public class Piece implements ChessPiece {
      */
     private Collection<ChessMove> getChessMoves(ChessBoard board, ChessPosition myPosition, Set<ChessMove> validMoves, Direction[] positions) {
         for (var position : positions) {
-            if (isValidMove(board, myPosition, new Position(myPosition.getRow() + position.getRowChange(), myPosition.getColumn() + position.getColChange()))) {
-                validMoves.add(new Move(myPosition, new Position(myPosition.getRow() + position.getRowChange(), myPosition.getColumn() + position.getColChange())));
+            if (isValidMove(board, myPosition, Position.of(myPosition.getRow() + position.getRowChange(), myPosition.getColumn() + position.getColChange()))) {
+                validMoves.add(new Move(myPosition, Position.of(myPosition.getRow() + position.getRowChange(), myPosition.getColumn() + position.getColChange())));
             }
         }
         return validMoves;
@@ -193,14 +251,12 @@ public class Piece implements ChessPiece {
      */
     private Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
         Set<ChessMove> validMoves = new HashSet<>();
-        var positions = new Direction[]{Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.UP_LEFT, Direction.UP_RIGHT, Direction.DOWN_LEFT, Direction.DOWN_RIGHT};
-        return getChessMoves(board, myPosition, validMoves, positions);
+        return getChessMoves(board, myPosition, validMoves, KING_DIRECTIONS);
     }
 
     private Collection<ChessMove> knightMoves(ChessBoard board, ChessPosition myPosition) {
         Set<ChessMove> validMoves = new HashSet<>();
-        var positions = new Direction[]{Direction.K_UP_LEFT, Direction.K_UP_RIGHT, Direction.K_DOWN_LEFT, Direction.K_DOWN_RIGHT, Direction.K_LEFT_UP, Direction.K_LEFT_DOWN, Direction.K_RIGHT_UP, Direction.K_RIGHT_DOWN};
-        return getChessMoves(board, myPosition, validMoves, positions);
+        return getChessMoves(board, myPosition, validMoves, KNIGHT_DIRECTIONS);
     }
 
     @Override
@@ -208,12 +264,12 @@ public class Piece implements ChessPiece {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Piece piece = (Piece) o;
-        return teamColor == piece.teamColor && pieceType == piece.pieceType && id == piece.id;
+        return teamColor == piece.teamColor && pieceType == piece.pieceType;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamColor, pieceType, id);
+        return teamColor.ordinal() * 6 + pieceType.ordinal();
     }
 
     @Override
@@ -0,0 +1,156 @@
+package chess;
+
+/**
+ * Material plus piece-square scores for a tapered evaluation, one score for the middlegame and one for the endgame.
+ * Scores are from white's point of view, so black pieces score negative. {@link BitBoard} adds them up as pieces
+ * are placed and removed, the same way it keeps the Zobrist key, so the total never has to be recomputed.
+ * <p>
+ * The tables below are written from white's side with the eighth rank on top, the way a board is printed.
+ */
+public final class PieceSquare {
+
+    /**
+     * The phase of the starting position, when every minor, rook and queen is on the board
+     */
+    public static final int MAX_PHASE = 24;
+
+    private static final int[] MIDGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+    private static final int[] PHASES = {0, 4, 1, 1, 2, 0};
+
+    private static final int[] KING_MIDGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20};
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20};
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0};
+
+    private static final int[] PAWN_MIDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            100, 100, 100, 100, 100, 100, 100, 100,
+            60, 60, 60, 60, 60, 60, 60, 60,
+            35, 35, 35, 35, 35, 35, 35, 35,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    /**
+     * Indexed by piece type ordinal: king, queen, bishop, knight, rook, pawn
+     */
+    private static final int[][] MIDGAME_TABLES = {KING_MIDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDGAME};
+    private static final int[][] ENDGAME_TABLES = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+
+    private static final int[][] MIDGAME = new int[12][64];
+    private static final int[][] ENDGAME = new int[12][64];
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                // the tables print rank 8 first, so white reads them with the rank flipped and black reads them as is
+                MIDGAME[type][square] = MIDGAME_VALUES[type] + MIDGAME_TABLES[type][square ^ 56];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + ENDGAME_TABLES[type][square ^ 56];
+                MIDGAME[6 + type][square] = -(MIDGAME_VALUES[type] + MIDGAME_TABLES[type][square]);
+                ENDGAME[6 + type][square] = -(ENDGAME_VALUES[type] + ENDGAME_TABLES[type][square]);
+            }
+        }
+    }
+
+    private PieceSquare() {
+    }
+
+    /**
+     * @return the middlegame score of a piece of the given color and type on a square index
+     */
+    public static int midgame(ChessGame.TeamColor color, ChessPiece.PieceType type, int square) {
+        return MIDGAME[color.ordinal() * 6 + type.ordinal()][square];
+    }
+
+    /**
+     * @return the endgame score of a piece of the given color and type on a square index
+     */
+    public static int endgame(ChessGame.TeamColor color, ChessPiece.PieceType type, int square) {
+        return ENDGAME[color.ordinal() * 6 + type.ordinal()][square];
+    }
+
+    /**
+     * @return how much the piece type counts toward the middlegame, 0 for kings and pawns
+     */
+    public static int phase(ChessPiece.PieceType type) {
+        return PHASES[type.ordinal()];
+    }
+
+    /**
+     * Blends the two scores by how much material is left, from all middlegame at {@link #MAX_PHASE} to all endgame at 0
+     *
+     * @param phase the summed {@link #phase} of every piece on the board, more than the maximum after promotions
+     * @return the tapered score from white's point of view
+     */
+    public static int taper(int midgame, int endgame, int phase) {
+        var clamped = Math.min(phase, MAX_PHASE);
+        return (midgame * clamped + endgame * (MAX_PHASE - clamped)) / MAX_PHASE;
+    }
+}
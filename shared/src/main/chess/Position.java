@@ -1,9 +1,15 @@
 package chess;
 
-import java.util.Objects;
-
 public class Position implements ChessPosition {
 
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new Position((square >> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int column;
 
@@ -12,6 +18,26 @@ public class Position implements ChessPosition {
         this.column = column;
     }
 
+    /**
+     * Positions on the board are shared, so looking one up never allocates.
+     * Positions off the board are still created, the move walking code steps off the edge before checking.
+     *
+     * @return the shared position for a row and column
+     */
+    public static Position of(int row, int column) {
+        if (row < 1 || row > 8 || column < 1 || column > 8) {
+            return new Position(row, column);
+        }
+        return SQUARES[(row - 1) << 3 | (column - 1)];
+    }
+
+    /**
+     * @return the shared position for a square index, 0 for a1 through 63 for h8
+     */
+    public static Position of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -45,7 +71,8 @@ public class Position implements ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        // computed from the fields rather than cached, Gson builds positions without calling a constructor
+        return 31 * row + column;
     }
 
 }
@@ -0,0 +1,212 @@
+package chess;
+
+import static chess.ChessPiece.PieceType.BISHOP;
+import static chess.ChessPiece.PieceType.KING;
+import static chess.ChessPiece.PieceType.KNIGHT;
+import static chess.ChessPiece.PieceType.PAWN;
+import static chess.ChessPiece.PieceType.QUEEN;
+import static chess.ChessPiece.PieceType.ROOK;
+
+/**
+ * Reads and writes moves in Standard Algebraic Notation, such as Nbd7, exd6, O-O or e8=Q+.
+ * A move is found by matching the text against the legal moves of the position, so anything that reads is legal.
+ * Both directions work on {@link PackedMove packed moves} and take the move list to fill, so replaying a game
+ * allocates nothing per move.
+ */
+public final class San {
+
+    private San() {
+    }
+
+    /**
+     * Finds the legal move a SAN string names. Check and annotation marks such as +, #, ! and ? are ignored,
+     * castling may be written with zeros and a promotion without the equals sign.
+     *
+     * @param moves filled with the legal moves of the position
+     * @return the packed move, with the flags the move generator sets
+     * @throws IllegalArgumentException if the text is not SAN, or names no legal move or more than one
+     */
+    public static int parse(Game game, String san, MoveList moves) {
+        var end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        game.legalMoves(moves);
+        var board = BitBoard.of(game.getBoard());
+
+        if (san.startsWith("O-O") || san.startsWith("0-0")) {
+            var queenside = end == 5 && (san.startsWith("O-O-O") || san.startsWith("0-0-0"));
+            if (end != 3 && !queenside) {
+                throw new IllegalArgumentException("Not a SAN move: " + san);
+            }
+            for (int i = 0; i < moves.size(); i++) {
+                var move = moves.get(i);
+                if ((move & PackedMove.CASTLE) != 0 && (PackedMove.to(move) & 7) == (queenside ? 2 : 6)) {
+                    return move;
+                }
+            }
+            throw new IllegalArgumentException("Illegal move " + san);
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (end >= 2 && Character.isUpperCase(san.charAt(end - 1)) && san.charAt(end - 1) != 'K') {
+            promotion = typeOf(san.charAt(end - 1));
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end < 2) {
+            throw new IllegalArgumentException("Not a SAN move: " + san);
+        }
+        var toFile = san.charAt(end - 2) - 'a';
+        var toRank = san.charAt(end - 1) - '1';
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+            throw new IllegalArgumentException("Not a SAN move: " + san);
+        }
+        var to = toRank * 8 + toFile;
+
+        var start = 0;
+        var type = PAWN;
+        if (Character.isUpperCase(san.charAt(0))) {
+            type = typeOf(san.charAt(0));
+            start = 1;
+        }
+        // what is left between the piece and the destination is an optional file, rank and capture mark
+        var fromFile = -1;
+        var fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            var c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                throw new IllegalArgumentException("Not a SAN move: " + san);
+            }
+        }
+
+        var found = -1;
+        for (int i = 0; i < moves.size(); i++) {
+            var move = moves.get(i);
+            var from = PackedMove.from(move);
+            if (PackedMove.to(move) != to || PackedMove.promotion(move) != promotion
+                    || board.getPiece(from).getPieceType() != type
+                    || (fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && from >> 3 != fromRank)) {
+                continue;
+            }
+            if (found >= 0) {
+                throw new IllegalArgumentException("Ambiguous move " + san);
+            }
+            found = move;
+        }
+        if (found < 0) {
+            throw new IllegalArgumentException("Illegal move " + san);
+        }
+        return found;
+    }
+
+    /**
+     * Writes a legal move with only as much of its start square as needed to tell it apart, and a check or mate
+     * mark. The move is played and taken back to find the mark.
+     *
+     * @param move  a legal move of the position
+     * @param moves filled with the legal moves of the position
+     * @return the move in SAN
+     */
+    public static String write(Game game, int move, MoveList moves) {
+        var board = BitBoard.of(game.getBoard());
+        var from = PackedMove.from(move);
+        var to = PackedMove.to(move);
+        var type = board.getPiece(from).getPieceType();
+        var san = new StringBuilder(8);
+
+        if (type == KING && Math.abs((to & 7) - (from & 7)) == 2) {
+            san.append((to & 7) == 6 ? "O-O" : "O-O-O");
+        } else {
+            var capture = board.getPiece(to) != null || (type == PAWN && (from & 7) != (to & 7));
+            if (type == PAWN) {
+                if (capture) {
+                    san.append(file(from));
+                }
+            } else {
+                san.append(letterOf(type));
+                disambiguate(game, board, move, type, moves, san);
+            }
+            if (capture) {
+                san.append('x');
+            }
+            san.append(file(to)).append(rank(to));
+            var promotion = PackedMove.promotion(move);
+            if (promotion != null) {
+                san.append('=').append(letterOf(promotion));
+            }
+        }
+
+        game.doMove(move);
+        var status = game.getStatus();
+        game.undoMove();
+        if (status == ChessGame.GameStatus.CHECKMATE) {
+            san.append('#');
+        } else if (status == ChessGame.GameStatus.CHECK) {
+            san.append('+');
+        }
+        return san.toString();
+    }
+
+    /**
+     * Adds the file of the start square if another piece of the same type can reach the same square, the rank if
+     * the file does not tell them apart, or both if neither does
+     */
+    private static void disambiguate(Game game, BitBoard board, int move, ChessPiece.PieceType type, MoveList moves,
+                                     StringBuilder san) {
+        var from = PackedMove.from(move);
+        var to = PackedMove.to(move);
+        var others = false;
+        var sameFile = false;
+        var sameRank = false;
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            var other = PackedMove.from(moves.get(i));
+            if (other == from || PackedMove.to(moves.get(i)) != to || board.getPiece(other).getPieceType() != type) {
+                continue;
+            }
+            others = true;
+            sameFile |= (other & 7) == (from & 7);
+            sameRank |= other >> 3 == from >> 3;
+        }
+        if (others && (!sameFile || sameRank)) {
+            san.append(file(from));
+        }
+        if (sameFile) {
+            san.append(rank(from));
+        }
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + (square & 7));
+    }
+
+    private static char rank(int square) {
+        return (char) ('1' + (square >> 3));
+    }
+
+    private static ChessPiece.PieceType typeOf(char letter) {
+        return switch (letter) {
+            case 'K' -> KING;
+            case 'Q' -> QUEEN;
+            case 'R' -> ROOK;
+            case 'B' -> BISHOP;
+            case 'N' -> KNIGHT;
+            default -> throw new IllegalArgumentException("Unknown SAN piece: " + letter);
+        };
+    }
+
+    private static char letterOf(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. The key of a position is the XOR of the key of every piece on its square,
+ * the side key when black is to move, the key of the castling rights and the key of the en passant file.
+ * Keys come from a fixed seed, so the same position hashes to the same key on every run and every server.
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECES = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long SIDE;
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (var keys : PIECES) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = nextRandom();
+            }
+        }
+        // no castling rights hashes to 0, so a bare board of pieces gets the same key as the piece keys alone
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = nextRandom();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT[file] = nextRandom();
+        }
+        SIDE = nextRandom();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for a piece of the given color and type standing on a square index
+     */
+    public static long piece(ChessGame.TeamColor color, ChessPiece.PieceType type, int square) {
+        return PIECES[color.ordinal() * 6 + type.ordinal()][square];
+    }
+
+    /**
+     * @param rights the castling rights as a 4-bit mask
+     * @return the key for the castling rights
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param file the file of the en passant square, 0 for the a file
+     * @return the key for the en passant file
+     */
+    public static long enPassant(int file) {
+        return EN_PASSANT[file];
+    }
+
+    /**
+     * @return the key XORed in when black is to move
+     */
+    public static long side() {
+        return SIDE;
+    }
+
+    /**
+     * splitmix64 generator
+     */
+    private static long nextRandom() {
+        long z = (seed += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,240 @@
+package chess.engine;
+
+import chess.Game;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Finds the best move of a position within a depth, time or node budget.
+ * The search works on a copy of the game, so the game passed in is never changed.
+ * Each engine keeps a {@link TranspositionTable}, which carries over from one search to the next. Engines built
+ * on the same table share its entries, so many can search at once and still learn from each other. A table of the
+ * engine's own is aged at the start of each search, so entries of earlier searches are replaced first. A shared
+ * table is never aged, as one engine starting a search would make the entries of the others look stale, and its
+ * entries are replaced by depth alone.
+ * <p>
+ * With more than one thread the search is a lazy SMP search: every thread searches the whole tree and they share
+ * only the transposition table. The result always comes from the main thread, the helpers make it faster by
+ * filling the table. With one thread no helper is started and a search is deterministic.
+ * <p>
+ * An engine given a {@link PolyglotBook} plays positions found in the book straight from it without searching.
+ * An engine given a {@link Tablebase} plays endings covered by it perfectly, and scores them exactly inside the tree.
+ * <p>
+ * A search may be stopped early from another thread with {@link #stop()}, it then returns the result
+ * of the deepest iteration it completed. Each search has its own {@link StopToken}. A caller that hands a search to
+ * another thread takes the token with {@link #newStopToken()} first, so a stop that comes before the search starts
+ * is not lost.
+ */
+public class Engine {
+
+    public static final int DEFAULT_HASH_MB = 16;
+
+    private final Evaluator evaluator;
+    private TranspositionTable table;
+    private boolean ownTable;
+    private int threads = 1;
+    private volatile PolyglotBook book;
+    private volatile Tablebase tablebase;
+    private volatile StopToken stopToken = new StopToken();
+    private volatile Consumer<SearchResult> listener = result -> {
+    };
+
+    public Engine() {
+        this(new PieceSquareEvaluator());
+    }
+
+    public Engine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable(DEFAULT_HASH_MB), true);
+    }
+
+    /**
+     * @param table the transposition table to search with, which may be shared with other engines and is
+     *              not aged between searches
+     */
+    public Engine(Evaluator evaluator, TranspositionTable table) {
+        this(evaluator, table, false);
+    }
+
+    private Engine(Evaluator evaluator, TranspositionTable table, boolean ownTable) {
+        this.evaluator = evaluator;
+        this.table = table;
+        this.ownTable = ownTable;
+    }
+
+    /**
+     * @param listener called with the result of every completed iteration, for progress output
+     */
+    public void setListener(Consumer<SearchResult> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Searches the position until one of the limits is reached
+     *
+     * @param game   the position to search, it is not changed
+     * @param limits the depth, time and node budget
+     * @return the best move found with its score and principal variation
+     */
+    public SearchResult search(Game game, SearchLimits limits) {
+        return search(game, limits, newStopToken());
+    }
+
+    /**
+     * Searches the position until one of the limits is reached or the token is stopped
+     *
+     * @param stopToken the token from the last call to {@link #newStopToken()}
+     * @see #search(Game, SearchLimits)
+     */
+    public SearchResult search(Game game, SearchLimits limits, StopToken stopToken) {
+        var startNanos = System.nanoTime();
+        var tablebase = this.tablebase;
+        var tablebaseMove = tablebase == null ? null : tablebase.bestMove(game);
+        if (tablebaseMove != null) {
+            var score = Searcher.tablebaseScore(tablebase.probe(game), 0);
+            return new SearchResult(tablebaseMove, score, 0, 0, (System.nanoTime() - startNanos) / 1_000_000,
+                    List.of(tablebaseMove));
+        }
+        var book = this.book;
+        var bookMove = book == null ? null : book.bestMove(game);
+        if (bookMove != null) {
+            return new SearchResult(bookMove, 0, 0, 0, (System.nanoTime() - startNanos) / 1_000_000, List.of(bookMove));
+        }
+
+        if (ownTable) {
+            table.newSearch();
+        }
+        var main = new Searcher(game.copy(), evaluator, limits, stopToken, table, tablebase, startNanos);
+        if (threads == 1) {
+            return main.iterate(1, listener);
+        }
+
+        var helpers = new Searcher[threads - 1];
+        var workers = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            var helper = new Searcher(game.copy(), evaluator, limits, stopToken, table, tablebase, startNanos);
+            // every other helper skips the first iteration, so the threads stay a depth apart
+            var firstDepth = Math.min(1 + (i + 1) % 2, limits.depth());
+            helpers[i] = helper;
+            workers[i] = new Thread(() -> helper.iterate(firstDepth, result -> {
+            }), "search-helper-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        var result = main.iterate(1, listener);
+        for (var helper : helpers) {
+            helper.halt();
+        }
+        var nodes = main.nodes();
+        for (int i = 0; i < workers.length; i++) {
+            joinUninterruptibly(workers[i]);
+            nodes += helpers[i].nodes();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.timeMillis(), result.pv());
+    }
+
+    /**
+     * A helper stops within {@link Searcher}'s check interval, so waiting for it is short
+     */
+    private static void joinUninterruptibly(Thread worker) {
+        var interrupted = false;
+        while (true) {
+            try {
+                worker.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sets how many threads a search uses, the calling thread plus threads - 1 helpers.
+     * A node budget applies to each thread on its own.
+     *
+     * @param threads the thread count, 1 for a deterministic single threaded search
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    /**
+     * @param book the opening book to play from before searching, or null to always search
+     */
+    public void setBook(PolyglotBook book) {
+        this.book = book;
+    }
+
+    /**
+     * @param tablebase the endgame tables to play and score covered endings from, or null to always search
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Replaces the transposition table with an empty one of the given size
+     *
+     * @param megabytes the memory the table may use
+     */
+    public void setHashSize(int megabytes) {
+        table = new TranspositionTable(megabytes);
+        ownTable = true;
+    }
+
+    /**
+     * Empties the transposition table, so the next search starts from nothing
+     */
+    public void clearHash() {
+        table.clear();
+    }
+
+    /**
+     * @return the transposition table, for its hit and fill rates
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Starts the stop flag of the next search, before the search itself starts. Calls to {@link #stop()} from now on
+     * stop the search given this token, earlier ones are forgotten.
+     */
+    public StopToken newStopToken() {
+        var token = new StopToken();
+        stopToken = token;
+        return token;
+    }
+
+    /**
+     * Asks the running search, or the one whose token was taken last, to return as soon as possible
+     */
+    public void stop() {
+        stopToken.stopped = true;
+    }
+
+    /**
+     * The stop flag of one search
+     */
+    public static final class StopToken {
+        private volatile boolean stopped;
+
+        private StopToken() {
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+    }
+}
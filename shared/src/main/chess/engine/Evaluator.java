@@ -0,0 +1,15 @@
+package chess.engine;
+
+import chess.Game;
+
+/**
+ * Scores a position for the search
+ */
+public interface Evaluator {
+
+    /**
+     * @param game the position to score
+     * @return the score in centipawns from the point of view of the team whose turn it is
+     */
+    int evaluate(Game game);
+}
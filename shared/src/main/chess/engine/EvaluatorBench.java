@@ -0,0 +1,85 @@
+package chess.engine;
+
+import chess.Fen;
+import chess.Game;
+import chess.MoveList;
+import chess.Perft;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts evaluations per second. The leaves of the move tree of the perft suite positions are collected first,
+ * then each evaluator scores all of them over and over, so only the evaluations are timed.
+ * <p>
+ * Run with {@code [depth] [rounds] [network]}, by default the leaves at depth 2 are each scored 200 times.
+ * The network is a weights file for {@link NnueEvaluator} or the hidden width of a random network,
+ * 256 by default. A random network costs the same to evaluate as a trained one.
+ */
+public final class EvaluatorBench {
+
+    /**
+     * The summed scores, kept so the evaluations cannot be optimized away
+     */
+    private static long sink;
+
+    private EvaluatorBench() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var depth = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        var rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        var network = args.length > 2 ? network(args[2]) : Network.random(256, 1);
+        List<Game> leaves = new ArrayList<>();
+        for (var entry : Perft.SUITE) {
+            collect(Fen.parse(entry.fen()), depth, leaves);
+        }
+        System.out.printf("%d positions, %d rounds, %s%n%n", leaves.size(), rounds, network);
+
+        var evaluators = new Evaluator[]{new MaterialEvaluator(), new PieceSquareEvaluator(), new NnueEvaluator(network)};
+        for (var evaluator : evaluators) {
+            // the first pass warms up the JIT
+            time(evaluator, leaves, rounds);
+            var seconds = time(evaluator, leaves, rounds);
+            var evaluations = (long) leaves.size() * rounds;
+            System.out.printf("%-22s %.3fs, %.0f evals/sec%n", evaluator.getClass().getSimpleName(), seconds,
+                    evaluations / seconds);
+        }
+    }
+
+    private static Network network(String argument) throws IOException {
+        return argument.matches("\\d+") ? Network.random(Integer.parseInt(argument), 1) : Network.load(Path.of(argument));
+    }
+
+    /**
+     * The network evaluator updates its accumulators as moves are made, which only the search pays for.
+     * Scoring the same positions again only computes the output.
+     *
+     * @return the seconds taken to evaluate every position the given number of times
+     */
+    private static double time(Evaluator evaluator, List<Game> positions, int rounds) {
+        var start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (var game : positions) {
+                sink += evaluator.evaluate(game);
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static void collect(Game game, int depth, List<Game> leaves) {
+        if (depth == 0) {
+            leaves.add(game.copy());
+            return;
+        }
+        var list = new MoveList();
+        game.legalMoves(list);
+        for (int i = 0; i < list.size(); i++) {
+            game.doMove(list.get(i));
+            collect(game, depth - 1, leaves);
+            game.undoMove();
+        }
+    }
+}
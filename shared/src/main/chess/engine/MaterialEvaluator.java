@@ -0,0 +1,28 @@
+package chess.engine;
+
+import chess.BitBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Game;
+
+/**
+ * Counts material only, using the piece bitboards rather than visiting the squares
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    /**
+     * Centipawn values indexed by {@link ChessPiece.PieceType} ordinal, the king is never captured so it counts 0
+     */
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    @Override
+    public int evaluate(Game game) {
+        var board = BitBoard.of(game.getBoard());
+        var score = 0;
+        for (var type : ChessPiece.PieceType.values()) {
+            score += VALUES[type.ordinal()] * (Long.bitCount(board.pieces(ChessGame.TeamColor.WHITE, type))
+                    - Long.bitCount(board.pieces(ChessGame.TeamColor.BLACK, type)));
+        }
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,222 @@
+package chess.engine;
+
+import chess.BitBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.PackedMove;
+
+import static chess.ChessPiece.PieceType.*;
+
+/**
+ * Hands out the moves of one node best first, in stages:
+ * <ol>
+ * <li>the hash move, before anything else is scored, since it often cuts off on its own</li>
+ * <li>captures that do not lose material by {@link #see static exchange}, most valuable victim first,
+ * then least valuable attacker, and promotions</li>
+ * <li>the killer moves, quiet moves that cut off at the same ply elsewhere in the tree</li>
+ * <li>the other quiet moves by their history score</li>
+ * <li>captures that lose material</li>
+ * </ol>
+ * Moves are picked by selection one at a time, so a cutoff early in the list never pays for sorting the rest.
+ * Each ply has its own picker, allocated up front like its move list.
+ */
+final class MovePicker {
+
+    private static final int GOOD_CAPTURE = 4_000_000;
+    private static final int KILLER = 3_000_000;
+    private static final int BAD_CAPTURE = -1_000_000;
+
+    /**
+     * Piece values for the exchange evaluation indexed by piece type ordinal, the king is worth more than
+     * everything else together so it is only ever captured last
+     */
+    private static final int[] SEE_VALUES = {20_000, 900, 330, 320, 500, 100};
+
+    /**
+     * The cheapest attackers come first when looking for the next piece to recapture with
+     */
+    private static final ChessPiece.PieceType[] ATTACKER_ORDER = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING};
+
+    private final int[] scores = new int[256];
+    private final int[] gain = new int[32];
+    private MoveList list;
+    private int count;
+    private int index;
+    private int hashMove;
+    private boolean scored;
+    private int[] killers;
+    private int[] history;
+    private BitBoard board;
+
+    /**
+     * Starts picking every move of the list
+     *
+     * @param hashMove the move to try first, or 0 for none
+     * @param killers  the killer move keys of this ply, 0 for an empty slot
+     * @param history  the history scores of the team to move, indexed by {@link #historyIndex(int)}
+     */
+    void start(MoveList list, int hashMove, int[] killers, int[] history, BitBoard board) {
+        this.list = list;
+        this.count = list.size();
+        this.index = 0;
+        this.hashMove = 0;
+        this.scored = false;
+        if (hashMove != 0) {
+            for (int i = 0; i < count; i++) {
+                if (PackedMove.key(list.get(i)) == PackedMove.key(hashMove)) {
+                    list.swap(0, i);
+                    this.hashMove = list.get(0);
+                    break;
+                }
+            }
+        }
+        this.killers = killers;
+        this.history = history;
+        this.board = board;
+    }
+
+    /**
+     * Starts picking the first count moves of the list, captures and promotions by value only
+     */
+    void startCaptures(MoveList list, int count, BitBoard board) {
+        this.list = list;
+        this.count = count;
+        this.index = 0;
+        this.hashMove = 0;
+        this.killers = null;
+        this.history = null;
+        this.board = board;
+        for (int i = 0; i < count; i++) {
+            scores[i] = captureScore(board, list.get(i));
+        }
+        this.scored = true;
+    }
+
+    /**
+     * @return the next best move, or 0 when every move has been picked
+     */
+    int next() {
+        if (index == count) {
+            return 0;
+        }
+        if (hashMove != 0 && index == 0) {
+            index++;
+            return hashMove;
+        }
+        if (!scored) {
+            scoreMoves();
+            scored = true;
+        }
+        var best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        list.swap(index, best);
+        var score = scores[index];
+        scores[index] = scores[best];
+        scores[best] = score;
+        return list.get(index++);
+    }
+
+    private void scoreMoves() {
+        for (int i = index; i < count; i++) {
+            var move = list.get(i);
+            if (!isQuiet(move)) {
+                var see = PackedMove.isCapture(move) ? see(board, move) : 0;
+                scores[i] = (see >= 0 ? GOOD_CAPTURE : BAD_CAPTURE) + captureScore(board, move);
+            } else if (PackedMove.key(move) == killers[0]) {
+                scores[i] = KILLER + 1;
+            } else if (PackedMove.key(move) == killers[1]) {
+                scores[i] = KILLER;
+            } else {
+                scores[i] = history[historyIndex(move)];
+            }
+        }
+    }
+
+    /**
+     * Most valuable victim first, then least valuable attacker, so exchanges are resolved with the fewest nodes.
+     * A promotion counts the value of the new piece.
+     */
+    private static int captureScore(BitBoard board, int move) {
+        var victim = board.getPiece(PackedMove.to(move));
+        var attacker = board.getPiece(PackedMove.from(move));
+        var victimValue = victim == null ? (PackedMove.isCapture(move) ? MaterialEvaluator.VALUES[5] : 0)
+                : MaterialEvaluator.VALUES[victim.getPieceType().ordinal()];
+        var promotion = PackedMove.promotion(move);
+        var promotionValue = promotion == null ? 0 : MaterialEvaluator.VALUES[promotion.ordinal()];
+        return (victimValue + promotionValue) * 16 - MaterialEvaluator.VALUES[attacker.getPieceType().ordinal()] / 100;
+    }
+
+    /**
+     * Plays out every capture on the target square, each side recapturing with its cheapest piece and free to
+     * stop when continuing would lose more. Sliders behind a captured piece join in through the updated occupancy.
+     * Pins and checks are ignored.
+     *
+     * @return the material the moving side wins, negative if it loses material
+     */
+    int see(BitBoard board, int move) {
+        var from = PackedMove.from(move);
+        var to = PackedMove.to(move);
+        var occupied = board.occupied() & ~(1L << from);
+        var victim = board.getPiece(to);
+        if (victim == null) {
+            // en passant, the captured pawn is beside the target square
+            var captured = to + (from < to ? -8 : 8);
+            occupied &= ~(1L << captured);
+            gain[0] = SEE_VALUES[PAWN.ordinal()];
+        } else {
+            gain[0] = SEE_VALUES[victim.getPieceType().ordinal()];
+        }
+        var mover = board.getPiece(from);
+        var side = mover.getTeamColor() == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        var onSquare = SEE_VALUES[mover.getPieceType().ordinal()];
+
+        var depth = 0;
+        while (depth < gain.length - 1) {
+            var attackers = board.attackers(to, side, occupied) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            ChessPiece.PieceType type = null;
+            var attacker = 0L;
+            for (var candidate : ATTACKER_ORDER) {
+                attacker = attackers & board.pieces(side, candidate);
+                if (attacker != 0) {
+                    type = candidate;
+                    break;
+                }
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            // neither side can do better than stopping here
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            occupied &= ~Long.lowestOneBit(attacker);
+            onSquare = SEE_VALUES[type.ordinal()];
+            side = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        }
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return true if the move neither captures nor promotes
+     */
+    static boolean isQuiet(int move) {
+        return !PackedMove.isCapture(move) && PackedMove.promotion(move) == null;
+    }
+
+    /**
+     * @return the index of the move in a history table, by its start and end square
+     */
+    static int historyIndex(int move) {
+        return PackedMove.from(move) << 6 | PackedMove.to(move);
+    }
+}
@@ -0,0 +1,161 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * The weights of a small quantized evaluation network, scored by {@link NnueEvaluator}.
+ * <p>
+ * The network has 768 inputs, one per color, piece type and square. A hidden layer of any width is computed twice,
+ * once from each team's point of view, with the board mirrored for black so both see their own pieces at the
+ * bottom. The output adds up the clipped hidden values of the team to move and then of the other team.
+ * Since an input only changes when a piece moves, the hidden layer is kept as a running sum that a move updates
+ * with a few column additions.
+ * <p>
+ * The weights file is the common format of simple trainers, little-endian 16-bit integers, optionally padded up
+ * to a multiple of 64 bytes:
+ * <pre>
+ * input weights   768 x hidden, input (own or other team * 384 + type * 64 + square) major,
+ *                 types pawn, knight, bishop, rook, queen, king
+ * hidden biases   hidden
+ * output weights  2 x hidden, the team to move first
+ * output bias     1
+ * </pre>
+ * Hidden values are quantized by {@value #QA} and output weights by {@value #QB}, the output is scaled to
+ * centipawns by {@value #SCALE}.
+ */
+public final class Network {
+
+    public static final int INPUTS = 768;
+    static final int QA = 255;
+    static final int QB = 64;
+    static final int SCALE = 400;
+
+    /**
+     * Input kind of each piece type by ordinal, king, queen, bishop, knight, rook, pawn
+     */
+    private static final int[] KINDS = {5, 4, 2, 1, 3, 0};
+
+    private static final int PADDING = 64;
+
+    private static final NetworkKernels KERNELS = NetworkKernels.best();
+
+    private final int hidden;
+    private final short[] inputWeights;
+    private final short[] hiddenBiases;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    private Network(int hidden, short[] inputWeights, short[] hiddenBiases, short[] outputWeights, int outputBias) {
+        this.hidden = hidden;
+        this.inputWeights = inputWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads a network, the hidden width follows from the file size
+     *
+     * @throws IOException if the file cannot be read or its size fits no hidden width
+     */
+    public static Network load(Path path) throws IOException {
+        var bytes = Files.readAllBytes(path);
+        // 768 + 1 + 2 values per hidden neuron, plus the output bias
+        var hidden = (bytes.length / 2 - 1) / (INPUTS + 3);
+        var used = 2 * ((INPUTS + 3) * hidden + 1);
+        if (hidden == 0 || bytes.length - used >= PADDING) {
+            throw new IOException("Not a " + INPUTS + " input network, " + bytes.length + " bytes fits no hidden width: "
+                    + path);
+        }
+        var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        var inputWeights = new short[INPUTS * hidden];
+        var hiddenBiases = new short[hidden];
+        var outputWeights = new short[2 * hidden];
+        buffer.get(inputWeights).get(hiddenBiases).get(outputWeights);
+        return new Network(hidden, inputWeights, hiddenBiases, outputWeights, buffer.get());
+    }
+
+    /**
+     * A network of small random weights. It evaluates nonsense, but costs the same as a trained network
+     * of the same width, for benchmarks and tests.
+     */
+    public static Network random(int hidden, long seed) {
+        var random = new SplittableRandom(seed);
+        var inputWeights = new short[INPUTS * hidden];
+        var hiddenBiases = new short[hidden];
+        var outputWeights = new short[2 * hidden];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (short) random.nextInt(-64, 65);
+        }
+        for (int i = 0; i < hidden; i++) {
+            hiddenBiases[i] = (short) random.nextInt(0, QA / 2);
+        }
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) random.nextInt(-QB, QB + 1);
+        }
+        return new Network(hidden, inputWeights, hiddenBiases, outputWeights, 0);
+    }
+
+    /**
+     * @return the width of the hidden layer
+     */
+    public int hidden() {
+        return hidden;
+    }
+
+    /**
+     * @param perspective the team whose point of view the input is for
+     * @return the input index of a piece on a square
+     */
+    static int input(ChessGame.TeamColor perspective, ChessPiece piece, int square) {
+        var other = piece.getTeamColor() == perspective ? 0 : 384;
+        var flip = perspective == ChessGame.TeamColor.WHITE ? 0 : 56;
+        return other + KINDS[piece.getPieceType().ordinal()] * 64 + (square ^ flip);
+    }
+
+    /**
+     * Sets a hidden layer to its biases, the value with no pieces on the board
+     */
+    void reset(short[] accumulator) {
+        System.arraycopy(hiddenBiases, 0, accumulator, 0, hidden);
+    }
+
+    void add(short[] accumulator, int input) {
+        KERNELS.add(accumulator, inputWeights, input * hidden);
+    }
+
+    void subtract(short[] accumulator, int input) {
+        KERNELS.subtract(accumulator, inputWeights, input * hidden);
+    }
+
+    /**
+     * @param us   the hidden layer from the point of view of the team to move
+     * @param them the hidden layer from the point of view of the other team
+     * @return the score in centipawns from the point of view of the team to move
+     */
+    int output(short[] us, short[] them) {
+        var sum = KERNELS.clippedDot(us, outputWeights, 0, QA) + KERNELS.clippedDot(them, outputWeights, hidden, QA)
+                + outputBias;
+        return (int) ((long) sum * SCALE / (QA * QB));
+    }
+
+    /**
+     * @return true if the hidden layer runs on the JDK Vector API rather than plain loops
+     */
+    public static boolean isVectorized() {
+        return !(KERNELS instanceof ScalarKernels);
+    }
+
+    @Override
+    public String toString() {
+        return "Network{" + INPUTS + " -> " + hidden + " x 2 -> 1, " + (isVectorized() ? "vector" : "scalar") + "}";
+    }
+}
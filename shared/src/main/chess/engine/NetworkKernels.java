@@ -0,0 +1,40 @@
+package chess.engine;
+
+/**
+ * The loops over a {@link Network}'s hidden layer, which take nearly all of its time. They run on the JDK Vector
+ * API when the {@code jdk.incubator.vector} module is present, started with
+ * {@code --add-modules jdk.incubator.vector}, and on plain loops otherwise.
+ */
+interface NetworkKernels {
+
+    /**
+     * Adds {@code weights[offset..offset + accumulator.length)} to the accumulator
+     */
+    void add(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Subtracts {@code weights[offset..offset + accumulator.length)} from the accumulator
+     */
+    void subtract(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * @return the sum of each accumulator value clipped to {@code [0, max]} times the weight at the same index
+     * from the offset on
+     */
+    int clippedDot(short[] accumulator, short[] weights, int offset, int max);
+
+    /**
+     * @return the Vector API kernels if the module is present, otherwise the scalar ones
+     */
+    static NetworkKernels best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // loaded by name, so the class is never touched without the module
+                return (NetworkKernels) Class.forName("chess.engine.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarKernels();
+            }
+        }
+        return new ScalarKernels();
+    }
+}
@@ -0,0 +1,76 @@
+package chess.engine;
+
+import chess.BitBoard;
+import chess.BoardListener;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Game;
+
+/**
+ * Scores positions with a {@link Network}. The first time a board is evaluated it gets an accumulator, which
+ * listens to the board and updates both hidden layers as pieces are placed and removed. Making or undoing a move
+ * then costs a few column additions, and evaluating only computes the output layer.
+ * <p>
+ * An evaluator may be shared between threads, as long as each thread searches its own board.
+ */
+public class NnueEvaluator implements Evaluator {
+
+    private final Network network;
+
+    public NnueEvaluator(Network network) {
+        this.network = network;
+    }
+
+    @Override
+    public int evaluate(Game game) {
+        var board = BitBoard.of(game.getBoard());
+        var accumulator = board.listener() instanceof Accumulator listener && listener.network == network
+                ? listener
+                : attach(board);
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? network.output(accumulator.white, accumulator.black)
+                : network.output(accumulator.black, accumulator.white);
+    }
+
+    /**
+     * Computes both hidden layers from every piece on the board and keeps them up to date from then on
+     */
+    private Accumulator attach(BitBoard board) {
+        var accumulator = new Accumulator(network);
+        for (var pieces = board.occupied(); pieces != 0; pieces &= pieces - 1) {
+            var square = Long.numberOfTrailingZeros(pieces);
+            accumulator.placed(square, board.getPiece(square));
+        }
+        board.setListener(accumulator);
+        return accumulator;
+    }
+
+    /**
+     * The hidden layers of one board, from white's and from black's point of view
+     */
+    private static final class Accumulator implements BoardListener {
+        private final Network network;
+        private final short[] white;
+        private final short[] black;
+
+        private Accumulator(Network network) {
+            this.network = network;
+            this.white = new short[network.hidden()];
+            this.black = new short[network.hidden()];
+            network.reset(white);
+            network.reset(black);
+        }
+
+        @Override
+        public void placed(int square, ChessPiece piece) {
+            network.add(white, Network.input(ChessGame.TeamColor.WHITE, piece, square));
+            network.add(black, Network.input(ChessGame.TeamColor.BLACK, piece, square));
+        }
+
+        @Override
+        public void removed(int square, ChessPiece piece) {
+            network.subtract(white, Network.input(ChessGame.TeamColor.WHITE, piece, square));
+            network.subtract(black, Network.input(ChessGame.TeamColor.BLACK, piece, square));
+        }
+    }
+}
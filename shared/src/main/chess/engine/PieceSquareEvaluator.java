@@ -0,0 +1,21 @@
+package chess.engine;
+
+import chess.BitBoard;
+import chess.ChessGame;
+import chess.Game;
+import chess.PieceSquare;
+
+/**
+ * Material plus piece-square tables, tapered from the middlegame to the endgame as pieces come off the board.
+ * The board keeps the summed scores up to date as moves are made and undone, so evaluating costs the same
+ * no matter how many pieces are left.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(Game game) {
+        var board = BitBoard.of(game.getBoard());
+        var score = PieceSquare.taper(board.midgame(), board.endgame(), board.phase());
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,160 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Game;
+import chess.Move;
+import chess.Position;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An opening book in the Polyglot {@code .bin} format. The file is memory-mapped rather than read, so the book
+ * takes no heap and the operating system pages in only the parts that are looked at. Entries are sorted by key,
+ * so a position is found by binary search over the mapped file.
+ * <pre>
+ * entry bytes  0-7   key, see {@link PolyglotKey}
+ * entry bytes  8-9   move, to file in bits 0-2, to row 3-5, from file 6-8, from row 9-11, promotion 12-14
+ * entry bytes 10-11  weight, how often the move should be played relative to the others
+ * entry bytes 12-15  learn data, unused
+ * </pre>
+ * All numbers are big-endian. Castling is stored as the king capturing its own rook.
+ */
+public final class PolyglotBook {
+
+    private static final int ENTRY_BYTES = 16;
+
+    /**
+     * Indexed by the promotion field, 0 for none
+     */
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    private final MappedByteBuffer entries;
+    private final int size;
+    private final PolyglotKey keys;
+
+    /**
+     * A move found in the book
+     *
+     * @param move   the move, checked to be legal in the position
+     * @param weight the relative weight the book gives it
+     */
+    public record BookMove(ChessMove move, int weight) {
+    }
+
+    private PolyglotBook(MappedByteBuffer entries, PolyglotKey keys) {
+        this.entries = entries;
+        this.size = entries.capacity() / ENTRY_BYTES;
+        this.keys = keys;
+    }
+
+    /**
+     * Maps the book file read-only, the mapping stays valid after the channel is closed
+     *
+     * @param path the {@code .bin} file
+     * @param keys the Polyglot key tables to look positions up with
+     * @throws IOException if the file cannot be mapped or is not a whole number of entries
+     */
+    public static PolyglotBook open(Path path, PolyglotKey keys) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var length = channel.size();
+            if (length % ENTRY_BYTES != 0) {
+                throw new IOException("Not a Polyglot book, " + length + " bytes is not a whole number of entries: " + path);
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Book is too large to map at once: " + path);
+            }
+            return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length), keys);
+        }
+    }
+
+    /**
+     * @return the legal book moves of the position, highest weight first, empty if the position is not in the book
+     */
+    public List<BookMove> moves(Game game) {
+        var key = keys.key(game);
+        List<BookMove> moves = new ArrayList<>();
+        for (int i = firstEntry(key); i < size && entries.getLong(i * ENTRY_BYTES) == key; i++) {
+            var offset = i * ENTRY_BYTES;
+            var move = decode(game, entries.getShort(offset + 8) & 0xFFFF);
+            var weight = entries.getShort(offset + 10) & 0xFFFF;
+            // a book built for another variant or with a colliding key could hold moves that are not legal here
+            if (move != null && game.isLegal(move)) {
+                moves.add(new BookMove(move, weight));
+            }
+        }
+        moves.sort(Comparator.comparingInt(BookMove::weight).reversed());
+        return moves;
+    }
+
+    /**
+     * @return the book move with the highest weight, or null if the position is not in the book
+     */
+    public ChessMove bestMove(Game game) {
+        var moves = moves(game);
+        return moves.isEmpty() ? null : moves.get(0).move();
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Keys are compared unsigned, the order Polyglot sorts them in
+     *
+     * @return the index of the first entry with a key of at least the given key
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(entries.getLong(middle * ENTRY_BYTES), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the move the entry describes, or null if it names an empty square or an unknown promotion
+     */
+    private static ChessMove decode(Game game, int raw) {
+        var toColumn = (raw & 7) + 1;
+        var toRow = (raw >>> 3 & 7) + 1;
+        var fromColumn = (raw >>> 6 & 7) + 1;
+        var fromRow = (raw >>> 9 & 7) + 1;
+        var promotion = raw >>> 12 & 7;
+        if (promotion >= PROMOTIONS.length) {
+            return null;
+        }
+        var piece = game.getBoard().getPiece(Position.of(fromRow, fromColumn));
+        if (piece == null) {
+            return null;
+        }
+        // castling is stored as e1h1, e1a1, e8h8 and e8a8, the king moves two squares instead
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && fromColumn == 5 && fromRow == toRow
+                && (toColumn == 8 || toColumn == 1)) {
+            toColumn = toColumn == 8 ? 7 : 3;
+        }
+        return new Move(Position.of(fromRow, fromColumn), Position.of(toRow, toColumn), PROMOTIONS[promotion]);
+    }
+
+    @Override
+    public String toString() {
+        return "PolyglotBook{" + size + " entries}";
+    }
+}
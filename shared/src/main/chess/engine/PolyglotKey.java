@@ -0,0 +1,117 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.BitBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Hashes positions the way Polyglot opening books are keyed. The keys use the 781 fixed Random64 numbers from the
+ * Polyglot book format specification, not this project's {@link chess.Zobrist} keys, and they are read from a file
+ * so the table is not copied by hand into the source.
+ * <pre>
+ * Random64[0..767]   piece on a square, at 64 * kind + square, kinds black pawn, white pawn, black knight, ... white king
+ * Random64[768..771] castling rights, white kingside, white queenside, black kingside, black queenside
+ * Random64[772..779] en passant file, only when a pawn of the team to move can actually capture
+ * Random64[780]      white to move
+ * </pre>
+ */
+public final class PolyglotKey {
+
+    public static final int SIZE = 781;
+
+    private static final int CASTLING = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN = 780;
+
+    /**
+     * Polyglot kind offset of each piece type by ordinal, king, queen, bishop, knight, rook, pawn, for black.
+     * The white piece of the same type is the next kind.
+     */
+    private static final int[] KINDS = {10, 8, 4, 2, 6, 0};
+
+    private final long[] random64;
+
+    /**
+     * @param random64 the 781 Random64 numbers in the order of the specification
+     */
+    public PolyglotKey(long[] random64) {
+        if (random64.length != SIZE) {
+            throw new IllegalArgumentException("Polyglot needs " + SIZE + " random numbers, got " + random64.length);
+        }
+        this.random64 = random64.clone();
+    }
+
+    /**
+     * Reads the Random64 numbers as hexadecimal, separated by whitespace or commas. A C array copied from the
+     * specification reads as is, since 0x prefixes, U and ULL suffixes, braces and comments are skipped.
+     *
+     * @param path the file holding the numbers
+     * @throws IOException if the file cannot be read or does not hold exactly 781 numbers
+     */
+    public static PolyglotKey load(Path path) throws IOException {
+        var text = Files.readString(path).replaceAll("(?s)/\\*.*?\\*/|//[^\\n]*", " ");
+        var numbers = new long[SIZE];
+        var count = 0;
+        for (var token : text.split("[\\s,{};]+")) {
+            var hex = token.replaceFirst("^0[xX]", "").replaceFirst("[uUlL]+$", "");
+            if (hex.isEmpty() || !hex.matches("[0-9a-fA-F]{1,16}")) {
+                continue;
+            }
+            if (count == SIZE) {
+                throw new IOException("More than " + SIZE + " random numbers in " + path);
+            }
+            numbers[count++] = Long.parseUnsignedLong(hex, 16);
+        }
+        if (count != SIZE) {
+            throw new IOException("Expected " + SIZE + " random numbers in " + path + ", found " + count);
+        }
+        return new PolyglotKey(numbers);
+    }
+
+    /**
+     * @return the Polyglot key of the position
+     */
+    public long key(Game game) {
+        var board = BitBoard.of(game.getBoard());
+        var key = 0L;
+        for (var color : ChessGame.TeamColor.values()) {
+            var white = color == ChessGame.TeamColor.WHITE ? 1 : 0;
+            for (var type : ChessPiece.PieceType.values()) {
+                var offset = 64 * (KINDS[type.ordinal()] + white);
+                for (var pieces = board.pieces(color, type); pieces != 0; pieces &= pieces - 1) {
+                    key ^= random64[offset + Long.numberOfTrailingZeros(pieces)];
+                }
+            }
+        }
+        // the castling bits are in the same order as Polyglot's
+        var rights = game.castlingRights();
+        for (int i = 0; i < 4; i++) {
+            if ((rights & 1 << i) != 0) {
+                key ^= random64[CASTLING + i];
+            }
+        }
+        var enPassant = game.enPassantSquare();
+        if (enPassant >= 0 && canCaptureEnPassant(board, game.getTeamTurn(), enPassant)) {
+            key ^= random64[EN_PASSANT + (enPassant & 7)];
+        }
+        if (game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+            key ^= random64[TURN];
+        }
+        return key;
+    }
+
+    /**
+     * Polyglot only hashes the en passant file when a pawn stands ready to capture, legal or not
+     */
+    private static boolean canCaptureEnPassant(BitBoard board, ChessGame.TeamColor us, int square) {
+        var them = us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        // the squares a pawn of ours could capture onto the square from are the ones their pawn attacks it from
+        return (Attacks.pawn(them, square) & board.pieces(us, ChessPiece.PieceType.PAWN)) != 0;
+    }
+}
@@ -0,0 +1,32 @@
+package chess.engine;
+
+/**
+ * {@link NetworkKernels} as plain loops. The JIT turns the additions into SIMD instructions on its own,
+ * the clipped dot product mostly stays scalar.
+ */
+final class ScalarKernels implements NetworkKernels {
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int clippedDot(short[] accumulator, short[] weights, int offset, int max) {
+        var sum = 0;
+        for (int i = 0; i < accumulator.length; i++) {
+            // min and max compile to conditional moves, a branch would mispredict on every other value
+            sum += Math.min(Math.max(accumulator[i], 0), max) * weights[offset + i];
+        }
+        return sum;
+    }
+}
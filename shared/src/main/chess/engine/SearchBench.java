@@ -0,0 +1,60 @@
+package chess.engine;
+
+import chess.Fen;
+import chess.Perft;
+
+/**
+ * Measures how much faster a parallel search reaches a fixed depth. Every suite position is searched to the depth
+ * with a fresh engine for each thread count, after an untimed pass at one thread, and the speedup is the single
+ * thread time divided by the time with that many threads.
+ * <p>
+ * Run with {@code [depth] [threads...]}, by default depth 5 at 1, 2, 4, 8 and 16 threads.
+ */
+public final class SearchBench {
+
+    private static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16};
+
+    private SearchBench() {
+    }
+
+    public static void main(String[] args) {
+        var depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        var threadCounts = DEFAULT_THREADS;
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        System.out.printf("Depth %d, %d cores available%n%n", depth, Runtime.getRuntime().availableProcessors());
+
+        // the first pass warms up the JIT, the speedup is always measured against one thread
+        run(1, depth);
+        var single = run(1, depth);
+        for (var threads : threadCounts) {
+            var timing = threads == 1 ? single : run(threads, depth);
+            System.out.printf("%2d threads: %.3fs, %d nodes, %.0f nodes/sec, speedup %.2fx%n",
+                    threads, timing.seconds(), timing.nodes(), timing.nodes() / timing.seconds(),
+                    single.seconds() / timing.seconds());
+        }
+    }
+
+    /**
+     * @return the time and nodes taken to search every suite position to the depth with the given threads
+     */
+    private static Timing run(int threads, int depth) {
+        long nodes = 0;
+        var seconds = 0.0;
+        for (var entry : Perft.SUITE) {
+            var engine = new Engine();
+            engine.setThreads(threads);
+            var start = System.nanoTime();
+            nodes += engine.search(Fen.parse(entry.fen()), SearchLimits.depth(depth)).nodes();
+            seconds += (System.nanoTime() - start) / 1e9;
+        }
+        return new Timing(seconds, nodes);
+    }
+
+    private record Timing(double seconds, long nodes) {
+    }
+}
@@ -0,0 +1,48 @@
+package chess.engine;
+
+/**
+ * How far a search may go. The search stops at whichever limit it reaches first, a limit of 0 means no limit.
+ *
+ * @param depth      the deepest iteration to search, in plies
+ * @param timeMillis the wall-clock budget in milliseconds
+ * @param nodes      the most positions to visit
+ */
+public record SearchLimits(int depth, long timeMillis, long nodes) {
+
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + depth);
+        }
+        if (timeMillis < 0 || nodes < 0) {
+            throw new IllegalArgumentException("Time and node limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(MAX_DEPTH, timeMillis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, 0, nodes);
+    }
+
+    /**
+     * @return these limits with a wall-clock budget added
+     */
+    public SearchLimits withTime(long timeMillis) {
+        return new SearchLimits(depth, timeMillis, nodes);
+    }
+
+    /**
+     * @return these limits with a node budget added
+     */
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, timeMillis, nodes);
+    }
+}
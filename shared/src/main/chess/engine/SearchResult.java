@@ -0,0 +1,44 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of the deepest completed search iteration, or a move played from the opening book,
+ * which has a depth of 0 and no nodes
+ *
+ * @param bestMove   the move to play, or null if the team to move has no valid moves
+ * @param score      the score in centipawns from the point of view of the team to move, see {@link #isMate()}
+ * @param depth      the depth of the iteration the result comes from
+ * @param nodes      the positions visited by the whole search so far
+ * @param timeMillis the time spent by the whole search so far
+ * @param pv         the principal variation, the line both sides are expected to play starting with the best move
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long timeMillis, List<ChessMove> pv) {
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Searcher.MATE_BOUND;
+    }
+
+    /**
+     * @return the number of moves to mate, negative when the team to move is getting mated, 0 if the score is not a mate
+     */
+    public int mateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        var plies = Searcher.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    /**
+     * @return the number of positions visited per second
+     */
+    public long nodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+}
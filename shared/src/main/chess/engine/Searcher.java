@@ -0,0 +1,349 @@
+package chess.engine;
+
+import chess.BitBoard;
+import chess.ChessMove;
+import chess.Game;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One thread's search: iterative deepening over a negamax alpha-beta search with a quiescence search at the leaves.
+ * It plays moves on its own copy of the game and allocates all of its move lists up front.
+ * Searched positions are stored in the engine's {@link TranspositionTable}, whose entries cut off repeated
+ * subtrees and whose best moves are tried first. Moves are ordered by a {@link MovePicker} per ply, fed with the
+ * killer moves and history scores this searcher learns from its own cutoffs.
+ * <p>
+ * In a parallel search every thread runs its own searcher over the shared table. Only the main searcher's result
+ * is used, the helpers fill the table with entries it would otherwise have to search itself.
+ */
+final class Searcher {
+
+    static final int MAX_PLY = 128;
+    static final int MATE = 32_000;
+    static final int MATE_BOUND = MATE - MAX_PLY;
+    static final int INFINITY = MATE + 1;
+
+    /**
+     * How many nodes are searched between checks of the clock and the stop flag
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * History scores are halved once one passes this, so they stay below the killer and capture scores
+     * and recent cutoffs count more than old ones
+     */
+    private static final int HISTORY_MAX = 1 << 20;
+
+    private final Game game;
+    private final Evaluator evaluator;
+    private final SearchLimits limits;
+    private final Engine.StopToken stopToken;
+    private final TranspositionTable table;
+    private final Tablebase tablebase;
+    private final long startNanos;
+    private final long deadlineNanos;
+    private final long softDeadlineNanos;
+
+    private final MoveList[] moves = new MoveList[MAX_PLY + 1];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final long[] keys = new long[MAX_PLY + 1];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][64 * 64];
+
+    private long nodes;
+    private boolean aborted;
+    private volatile boolean halted;
+    private int bestRootMove;
+
+    Searcher(Game game, Evaluator evaluator, SearchLimits limits, Engine.StopToken stopToken, TranspositionTable table,
+             Tablebase tablebase, long startNanos) {
+        this.game = game;
+        this.evaluator = evaluator;
+        this.limits = limits;
+        this.stopToken = stopToken;
+        this.table = table;
+        this.tablebase = tablebase;
+        this.startNanos = startNanos;
+        var hasTime = limits.timeMillis() != 0;
+        this.deadlineNanos = hasTime ? startNanos + limits.timeMillis() * 1_000_000 : 0;
+        // an iteration takes several times as long as the one before, so none is started past half the budget
+        this.softDeadlineNanos = hasTime ? startNanos + limits.timeMillis() * 500_000 : 0;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            moves[ply] = new MoveList();
+            pickers[ply] = new MovePicker();
+        }
+    }
+
+    /**
+     * Searches one ply deeper each iteration until a limit is reached, an interrupted iteration is thrown away
+     *
+     * @param firstDepth the depth of the first iteration, helpers start at different depths so they do not all
+     *                   search the same tree at the same time
+     * @param listener   called with the result of every completed iteration
+     * @return the result of the deepest completed iteration
+     */
+    SearchResult iterate(int firstDepth, Consumer<SearchResult> listener) {
+        var rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            var score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, elapsedMillis(), List.of());
+        }
+        // a fallback for a search stopped before its first iteration completes
+        var result = new SearchResult(PackedMove.toMove(rootMoves.get(0)), 0, 0, 0, elapsedMillis(),
+                List.of(PackedMove.toMove(rootMoves.get(0))));
+
+        for (int depth = firstDepth; depth <= limits.depth(); depth++) {
+            var score = search(depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                break;
+            }
+            bestRootMove = pv[0][0];
+            result = new SearchResult(PackedMove.toMove(bestRootMove), score, depth, nodes, elapsedMillis(), principalVariation());
+            listener.accept(result);
+            // a mate within the searched depth cannot get any shorter
+            if (Math.abs(score) >= MATE - depth || (softDeadlineNanos != 0 && System.nanoTime() - softDeadlineNanos > 0)) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the score of a tablebase result at the given ply, a mate score counted from the root like the
+     * search's own
+     */
+    static int tablebaseScore(Tablebase.Probe probe, int ply) {
+        return switch (probe.wdl()) {
+            case 1 -> MATE - ply - probe.pliesToMate();
+            case -1 -> -MATE + ply + probe.pliesToMate();
+            default -> 0;
+        };
+    }
+
+    private int search(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        var key = game.getZobristKey();
+        keys[ply] = key;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        // a covered ending has an exact score, the probe returns before doing any work for more pieces
+        if (ply > 0 && tablebase != null) {
+            var probe = tablebase.probe(game);
+            if (probe != null) {
+                return tablebaseScore(probe, ply);
+            }
+        }
+
+        var entry = table.probe(key);
+        var hashMove = entry == 0 ? 0 : TranspositionTable.move(entry);
+        // the root always searches, so it has a move and a principal variation to return
+        if (entry != 0 && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            var score = TranspositionTable.score(entry, ply);
+            var bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        var list = moves[ply];
+        game.legalMoves(list);
+        if (list.isEmpty()) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        }
+        // try the best move of the previous iteration or an earlier visit first
+        var firstMove = ply == 0 && bestRootMove != 0 ? bestRootMove : hashMove;
+        var us = game.getTeamTurn().ordinal();
+        var picker = pickers[ply];
+        picker.start(list, firstMove, killers[ply], history[us], BitBoard.of(game.getBoard()));
+
+        var originalAlpha = alpha;
+        var bestScore = -INFINITY;
+        var bestMove = 0;
+        int move;
+        while ((move = picker.next()) != 0) {
+            game.doMove(move);
+            var score = -search(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (MovePicker.isQuiet(move)) {
+                            rememberCutoff(move, depth, ply, history[us]);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        var bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bound == TranspositionTable.UPPER ? 0 : bestMove, bestScore, depth, bound, ply);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures and promotions until the position is quiet, so the evaluation is never taken in the
+     * middle of an exchange. In check every move is searched, since standing pat is not an option.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        var inCheck = game.isInCheck(game.getTeamTurn());
+        if (!inCheck) {
+            var standPat = evaluator.evaluate(game);
+            if (standPat >= beta || ply >= MAX_PLY) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+
+        var list = moves[ply];
+        game.legalMoves(list);
+        if (list.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluator.evaluate(game);
+        }
+        var count = inCheck ? list.size() : keepCaptures(list);
+        var picker = pickers[ply];
+        picker.startCaptures(list, count, BitBoard.of(game.getBoard()));
+        int move;
+        while ((move = picker.next()) != 0) {
+            game.doMove(move);
+            var score = -quiesce(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Moves the captures and promotions to the front of the list
+     *
+     * @return the number of captures and promotions
+     */
+    private static int keepCaptures(MoveList list) {
+        var count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            var move = list.get(i);
+            if (PackedMove.isCapture(move) || PackedMove.promotion(move) != null) {
+                list.swap(count++, i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A quiet move that cut off becomes a killer of its ply and gains history by the square of the depth,
+     * so cutoffs near the root count the most
+     */
+    private void rememberCutoff(int move, int depth, int ply, int[] history) {
+        var key = PackedMove.key(move);
+        if (killers[ply][0] != key) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = key;
+        }
+        var index = MovePicker.historyIndex(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_MAX) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Counts a node and checks the limits every {@link #CHECK_INTERVAL} nodes
+     *
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            if (halted || stopToken.isStopped() || (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0)) {
+                aborted = true;
+            }
+        }
+        if (limits.nodes() != 0 && nodes >= limits.nodes()) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * @return true if the position already occurred earlier on the current line with the same team to move
+     */
+    private boolean isRepetition(int ply) {
+        for (int earlier = ply - 2; earlier >= 0; earlier -= 2) {
+            if (keys[earlier] == keys[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+        pvLength[ply] = Math.max(pvLength[ply + 1], ply + 1);
+    }
+
+    private List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>();
+        for (int i = 0; i < pvLength[0]; i++) {
+            line.add(PackedMove.toMove(pv[0][i]));
+        }
+        return line;
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Stops a helper once the main searcher is done, it may be called from another thread
+     */
+    void halt() {
+        halted = true;
+    }
+
+    long nodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,608 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.BitBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Game;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static chess.ChessPiece.PieceType.*;
+
+/**
+ * Endgame tables with the exact result and distance to mate of every position with up to {@link #MAX_PIECES}
+ * pieces, built by retrograde analysis in {@link TablebaseGenerator}. A table covers one material balance, such as
+ * king and rook against king, named like {@code KRvK}. The side with more or stronger pieces is always white in the
+ * table, positions with the colors the other way around are looked up with the board mirrored.
+ * <p>
+ * A table holds one byte per arrangement of its pieces and team to move, indexed by the squares directly, so a
+ * probe costs the same no matter the position. When a table is added, each material signature it covers is mapped
+ * to the table and the order its pieces go in, so a probe counts the pieces, reads their squares and looks up one
+ * byte without allocating. Tables are built when asked for and kept in memory. With a cache directory they are also
+ * written there and read back instead of built the next time.
+ * <p>
+ * Positions with castling rights or a possible en passant capture are not covered, the tables assume neither.
+ * The fifty move rule is ignored.
+ * <pre>
+ * value  > 0  the team to move mates in value plies
+ * value  = 0  draw with best play
+ * value  < 0  the team to move is mated in -value - 1 plies
+ * </pre>
+ */
+public final class Tablebase {
+
+    public static final int MAX_PIECES = 4;
+
+    /**
+     * Piece types from strongest to weakest, the order pieces are named and stored in
+     */
+    static final ChessPiece.PieceType[] ORDER = {QUEEN, ROOK, BISHOP, KNIGHT, PAWN};
+
+    private static final ChessGame.TeamColor[] COLORS = {ChessGame.TeamColor.WHITE, ChessGame.TeamColor.BLACK};
+
+    /**
+     * The number of material signatures, one base 3 digit for the count of each piece type of each color
+     */
+    private static final int SIGNATURES = 59_049;
+
+    private static final String EXTENSION = ".tb";
+
+    /**
+     * Every probe result, so a probe returns one of these rather than allocating. The first 256 are for tables
+     * with a way to mate and the rest for dead tables, each indexed by the unsigned table value.
+     */
+    private static final Probe[] PROBES = new Probe[512];
+
+    static {
+        for (int i = 0; i < PROBES.length; i++) {
+            var value = (byte) i;
+            var dead = i >= 256;
+            PROBES[i] = value > 0 ? new Probe(1, value, dead)
+                    : value < 0 ? new Probe(-1, -value - 1, dead) : new Probe(0, 0, dead);
+        }
+    }
+
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+
+    /**
+     * The table covering each material signature, see {@link #signature}, or null if it is not built.
+     * Written while holding the lock in {@link #table(String)}, read without it, which is safe as {@link Material}
+     * is immutable.
+     */
+    private final Material[] materials = new Material[SIGNATURES];
+    private final Path cacheDirectory;
+
+    /**
+     * The result of a probe, from the point of view of the team to move
+     *
+     * @param wdl          1 for a win, 0 for a draw and -1 for a loss with best play
+     * @param pliesToMate  the number of plies until mate with best play, 0 for a draw or when already mated
+     * @param dead         true if no arrangement of this material is checkmate, so the game can only be drawn
+     */
+    public record Probe(int wdl, int pliesToMate, boolean dead) {
+    }
+
+    /**
+     * A generated table
+     *
+     * @param values   one value per index, see the class comment
+     * @param mateless true if no position in the table is checkmate
+     * @param pawns    true if the table has pawns, which may promote into material that can mate
+     */
+    record Table(String name, byte[] values, boolean mateless, boolean pawns) {
+    }
+
+    /**
+     * Where the pieces of a position go in a table
+     *
+     * @param name    the table name
+     * @param flipped true if the colors are swapped and the board mirrored to match the table
+     * @param order   the index of the position's piece that goes in each slot of the table
+     */
+    record Layout(String name, boolean flipped, int[] order) {
+    }
+
+    /**
+     * Where the pieces of one material signature go in its table
+     *
+     * @param flipped true if the colors are swapped and the board mirrored to match the table
+     * @param colors  the color of the piece in each slot of the table, as it stands on the board
+     * @param types   the type of the piece in each slot, pieces of the same type and color in square order
+     */
+    private record Material(Table table, boolean flipped, boolean dead, ChessGame.TeamColor[] colors,
+                            ChessPiece.PieceType[] types) {
+    }
+
+    /**
+     * Creates a tablebase that keeps its tables in memory only
+     */
+    public Tablebase() {
+        this(null);
+    }
+
+    /**
+     * @param cacheDirectory the directory to read tables from and write new tables to, or null for none
+     */
+    public Tablebase(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * The tablebase shared by the server. It has every table of up to three pieces, which take a few megabytes
+     * and build in a couple of seconds. When the {@code chess.tablebase} system property names a directory, the
+     * tables are cached there and every table found there is loaded too, so tables of four pieces built ahead of
+     * time with {@link #main} are used as well. The tables are built or read on the first call, which the server
+     * makes as it starts.
+     */
+    public static Tablebase shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static final class Shared {
+        private static final Tablebase INSTANCE;
+
+        static {
+            var directory = System.getProperty("chess.tablebase");
+            INSTANCE = new Tablebase(directory == null ? null : Path.of(directory));
+            try {
+                INSTANCE.generateAll(3);
+                INSTANCE.loadCache();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Builds every table with up to the given number of pieces into a cache directory, for the server to load
+     * with the {@code chess.tablebase} system property.
+     * <p>
+     * Run with {@code <directory> [pieces]}, pieces being 3 by default. The four piece tables take 32 megabytes
+     * and up to a minute each.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: Tablebase <directory> [pieces]");
+            return;
+        }
+        var pieces = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        var start = System.nanoTime();
+        var tablebase = new Tablebase(Path.of(args[0]));
+        tablebase.generateAll(pieces);
+        System.out.printf("%s%nTime: %.1fs%n", tablebase, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Builds or loads every table with up to the given number of pieces
+     *
+     * @param pieces the most pieces, kings included, at most {@link #MAX_PIECES}
+     * @throws IOException if a table cannot be read from or written to the cache directory
+     */
+    public void generateAll(int pieces) throws IOException {
+        if (pieces < 2 || pieces > MAX_PIECES) {
+            throw new IllegalArgumentException("Tables have 2 to " + MAX_PIECES + " pieces: " + pieces);
+        }
+        for (var extras : combinations(pieces - 2)) {
+            // every split of the extra pieces between the two sides, the stronger side first
+            for (int white = extras.size(); white * 2 >= extras.size(); white--) {
+                var name = name(extras.subList(0, white), extras.subList(white, extras.size()));
+                generate(name);
+            }
+        }
+    }
+
+    /**
+     * Builds or loads a table and every table its captures and promotions lead to
+     *
+     * @param name the material, such as KQvKR, with either side first
+     * @throws IOException if the table cannot be read from or written to the cache directory
+     */
+    public void generate(String name) throws IOException {
+        var material = parse(name);
+        table(name(material.get(0), material.get(1)));
+    }
+
+    /**
+     * Loads every table in the cache directory, such as the tables of four pieces built ahead of time.
+     * Files in it that are not named like a table are left alone.
+     *
+     * @throws IOException if the directory or a table in it cannot be read
+     */
+    public void loadCache() throws IOException {
+        if (cacheDirectory == null || !Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        try (var files = Files.newDirectoryStream(cacheDirectory, "*" + EXTENSION)) {
+            for (var file : files) {
+                var fileName = file.getFileName().toString();
+                names.add(fileName.substring(0, fileName.length() - EXTENSION.length()));
+            }
+        }
+        for (var name : names) {
+            List<List<ChessPiece.PieceType>> material;
+            try {
+                material = parse(name);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            table(name(material.get(0), material.get(1)));
+        }
+    }
+
+    /**
+     * @return true if the table is built or loaded
+     */
+    public boolean has(String name) {
+        var material = parse(name);
+        return tables.containsKey(name(material.get(0), material.get(1)));
+    }
+
+    /**
+     * Looks the position up in O(1) without allocating, after counting its pieces
+     *
+     * @return the result with best play, or null if the position has too many pieces, its table is not built,
+     * or it has castling rights or an en passant capture
+     */
+    public Probe probe(Game game) {
+        var board = BitBoard.of(game.getBoard());
+        if (Long.bitCount(board.occupied()) > MAX_PIECES || game.castlingRights() != 0
+                || Long.bitCount(board.pieces(ChessGame.TeamColor.WHITE, KING)) != 1
+                || Long.bitCount(board.pieces(ChessGame.TeamColor.BLACK, KING)) != 1
+                || canCaptureEnPassant(game, board)) {
+            return null;
+        }
+        var material = materials[signature(board)];
+        if (material == null) {
+            return null;
+        }
+        var colors = material.colors();
+        var types = material.types();
+        var flip = material.flipped() ? 56 : 0;
+        var index = (game.getTeamTurn() == ChessGame.TeamColor.WHITE) != material.flipped() ? 0 : 1;
+        var bits = 0L;
+        for (int slot = 0; slot < types.length; slot++) {
+            if (slot == 0 || types[slot] != types[slot - 1] || colors[slot] != colors[slot - 1]) {
+                bits = board.pieces(colors[slot], types[slot]);
+            }
+            index = index << 6 | (Long.numberOfTrailingZeros(bits) ^ flip);
+            bits &= bits - 1;
+        }
+        var value = material.table().values()[index];
+        return PROBES[(material.dead() ? 256 : 0) + (value & 0xFF)];
+    }
+
+    /**
+     * @return the material signature of a position with one king per side and at most {@link #MAX_PIECES} pieces,
+     * which has at most two of any other piece
+     */
+    private static int signature(BitBoard board) {
+        var signature = 0;
+        for (var color : COLORS) {
+            for (var type : ORDER) {
+                signature = signature * 3 + Long.bitCount(board.pieces(color, type));
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @return the material signature of a position with these pieces besides the kings
+     */
+    private static int signature(List<ChessPiece.PieceType> white, List<ChessPiece.PieceType> black) {
+        var signature = 0;
+        for (var pieces : List.of(white, black)) {
+            for (var type : ORDER) {
+                signature = signature * 3 + (int) pieces.stream().filter(piece -> piece == type).count();
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @return the move that wins fastest, holds the draw, or loses slowest, or null if the position is not covered,
+     * a move leads to a table that is not built, or there are no moves
+     */
+    public ChessMove bestMove(Game game) {
+        var probe = probe(game);
+        if (probe == null) {
+            return null;
+        }
+        var position = game.copy();
+        var moves = new MoveList();
+        position.legalMoves(moves);
+        var best = 0;
+        var bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            position.doMove(moves.get(i));
+            var reply = probe(position);
+            position.undoMove();
+            if (reply == null) {
+                return null;
+            }
+            // from the mover's side: a quick win first, then a draw, then a slow loss
+            var rank = switch (reply.wdl()) {
+                case -1 -> 1_000 - reply.pliesToMate();
+                case 0 -> 0;
+                default -> -1_000 + reply.pliesToMate();
+            };
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves.get(i);
+            }
+        }
+        return best == 0 ? null : PackedMove.toMove(best);
+    }
+
+    /**
+     * Builds, loads or returns the table with the given canonical name
+     */
+    Table table(String name) throws IOException {
+        var table = tables.get(name);
+        if (table != null) {
+            return table;
+        }
+        synchronized (this) {
+            table = tables.get(name);
+            if (table == null) {
+                table = load(name);
+                tables.put(name, table);
+                addMaterials(table);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Maps the material signatures of a table, with the stronger side white and, unless both sides have the same
+     * pieces, with it black, to where their pieces go in the table
+     */
+    private void addMaterials(Table table) {
+        var material = parse(table.name());
+        var strong = material.get(0);
+        var weak = material.get(1);
+        var dead = table.mateless() && !table.pawns();
+        var types = new ChessPiece.PieceType[2 + strong.size() + weak.size()];
+        types[0] = KING;
+        types[1] = KING;
+        var slot = 2;
+        for (var type : strong) {
+            types[slot++] = type;
+        }
+        for (var type : weak) {
+            types[slot++] = type;
+        }
+        for (var flipped : new boolean[]{true, false}) {
+            var white = flipped ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            var black = flipped ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            var colors = new ChessGame.TeamColor[types.length];
+            colors[0] = white;
+            colors[1] = black;
+            for (int i = 2; i < colors.length; i++) {
+                colors[i] = i < 2 + strong.size() ? white : black;
+            }
+            // a table with the same pieces on both sides is never flipped, the unflipped mapping is written last
+            var signature = flipped ? signature(weak, strong) : signature(strong, weak);
+            materials[signature] = new Material(table, flipped, dead, colors, types);
+        }
+    }
+
+    private Table load(String name) throws IOException {
+        var material = parse(name);
+        var pieces = 2 + material.get(0).size() + material.get(1).size();
+        var size = 2 << 6 * pieces;
+        var pawns = material.get(0).contains(PAWN) || material.get(1).contains(PAWN);
+        var file = cacheDirectory == null ? null : cacheDirectory.resolve(name + EXTENSION);
+        if (file != null && Files.isRegularFile(file) && Files.size(file) == size) {
+            var values = Files.readAllBytes(file);
+            return new Table(name, values, isMateless(values), pawns);
+        }
+        var generator = new TablebaseGenerator(this, material.get(0), material.get(1));
+        var values = generator.generate();
+        if (file != null) {
+            Files.createDirectories(cacheDirectory);
+            Files.write(file, values);
+        }
+        return new Table(name, values, generator.isMateless(), pawns);
+    }
+
+    private static boolean isMateless(byte[] values) {
+        for (var value : values) {
+            if (value == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param side the team to move in the position
+     * @return the index of the position in its table
+     */
+    static int index(Layout layout, int[] squares, ChessGame.TeamColor side) {
+        var flip = layout.flipped() ? 56 : 0;
+        var index = (side == ChessGame.TeamColor.WHITE) != layout.flipped() ? 0 : 1;
+        for (var piece : layout.order()) {
+            index = index << 6 | (squares[piece] ^ flip);
+        }
+        return index;
+    }
+
+    /**
+     * @return where each piece goes in its table, or null if the pieces are not exactly one king per side
+     * and at most {@link #MAX_PIECES} pieces in all
+     */
+    static Layout layout(ChessGame.TeamColor[] colors, ChessPiece.PieceType[] types) {
+        if (colors.length > MAX_PIECES) {
+            return null;
+        }
+        var kings = new int[]{-1, -1};
+        List<Integer> white = new ArrayList<>();
+        List<Integer> black = new ArrayList<>();
+        for (int i = 0; i < colors.length; i++) {
+            if (types[i] == KING) {
+                if (kings[colors[i].ordinal()] >= 0) {
+                    return null;
+                }
+                kings[colors[i].ordinal()] = i;
+            } else {
+                (colors[i] == ChessGame.TeamColor.WHITE ? white : black).add(i);
+            }
+        }
+        if (kings[0] < 0 || kings[1] < 0) {
+            return null;
+        }
+        white.sort((a, b) -> rank(types[a]) - rank(types[b]));
+        black.sort((a, b) -> rank(types[a]) - rank(types[b]));
+        var flipped = compare(typesOf(white, types), typesOf(black, types)) < 0;
+        var strong = flipped ? black : white;
+        var weak = flipped ? white : black;
+        var order = new int[colors.length];
+        var slot = 0;
+        order[slot++] = kings[flipped ? 1 : 0];
+        order[slot++] = kings[flipped ? 0 : 1];
+        for (var piece : strong) {
+            order[slot++] = piece;
+        }
+        for (var piece : weak) {
+            order[slot++] = piece;
+        }
+        return new Layout(name(typesOf(strong, types), typesOf(weak, types)), flipped, order);
+    }
+
+    private static List<ChessPiece.PieceType> typesOf(List<Integer> pieces, ChessPiece.PieceType[] types) {
+        return pieces.stream().map(piece -> types[piece]).toList();
+    }
+
+    /**
+     * More pieces are stronger, then the strongest piece that differs decides
+     *
+     * @return a negative number if the first side is weaker, 0 if they are the same, otherwise a positive number
+     */
+    private static int compare(List<ChessPiece.PieceType> first, List<ChessPiece.PieceType> second) {
+        if (first.size() != second.size()) {
+            return first.size() - second.size();
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (first.get(i) != second.get(i)) {
+                return rank(second.get(i)) - rank(first.get(i));
+            }
+        }
+        return 0;
+    }
+
+    private static int rank(ChessPiece.PieceType type) {
+        for (int i = 0; i < ORDER.length; i++) {
+            if (ORDER[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the canonical name, with the stronger side first and each side's pieces strongest first
+     */
+    static String name(List<ChessPiece.PieceType> first, List<ChessPiece.PieceType> second) {
+        var a = first.stream().sorted((x, y) -> rank(x) - rank(y)).toList();
+        var b = second.stream().sorted((x, y) -> rank(x) - rank(y)).toList();
+        if (compare(a, b) < 0) {
+            var swap = a;
+            a = b;
+            b = swap;
+        }
+        return "K" + letters(a) + "vK" + letters(b);
+    }
+
+    private static String letters(List<ChessPiece.PieceType> types) {
+        var result = new StringBuilder();
+        for (var type : types) {
+            result.append(switch (type) {
+                case QUEEN -> 'Q';
+                case ROOK -> 'R';
+                case BISHOP -> 'B';
+                case KNIGHT -> 'N';
+                case PAWN -> 'P';
+                case KING -> 'K';
+            });
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the extra pieces of each side, in the order written
+     */
+    static List<List<ChessPiece.PieceType>> parse(String name) {
+        var sides = name.toUpperCase().split("V");
+        if (sides.length != 2 || !sides[0].startsWith("K") || !sides[1].startsWith("K")) {
+            throw new IllegalArgumentException("Not a table name like KQvKR: " + name);
+        }
+        List<List<ChessPiece.PieceType>> result = new ArrayList<>();
+        for (var side : sides) {
+            List<ChessPiece.PieceType> types = new ArrayList<>();
+            for (var letter : side.substring(1).toCharArray()) {
+                types.add(switch (letter) {
+                    case 'Q' -> QUEEN;
+                    case 'R' -> ROOK;
+                    case 'B' -> BISHOP;
+                    case 'N' -> KNIGHT;
+                    case 'P' -> PAWN;
+                    default -> throw new IllegalArgumentException("Unknown piece " + letter + " in " + name);
+                });
+            }
+            result.add(types);
+        }
+        if (2 + result.get(0).size() + result.get(1).size() > MAX_PIECES) {
+            throw new IllegalArgumentException("Tables have at most " + MAX_PIECES + " pieces: " + name);
+        }
+        return result;
+    }
+
+    /**
+     * @return every multiset of the given number of non-king pieces
+     */
+    private static List<List<ChessPiece.PieceType>> combinations(int count) {
+        List<List<ChessPiece.PieceType>> result = new ArrayList<>();
+        if (count == 0) {
+            result.add(List.of());
+            return result;
+        }
+        for (var smaller : combinations(count - 1)) {
+            var from = smaller.isEmpty() ? 0 : rank(smaller.get(smaller.size() - 1));
+            for (int i = from; i < ORDER.length; i++) {
+                List<ChessPiece.PieceType> combination = new ArrayList<>(smaller);
+                combination.add(ORDER[i]);
+                result.add(combination);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The tables assume no en passant, so a position where the team to move could capture en passant is not covered
+     */
+    private static boolean canCaptureEnPassant(Game game, BitBoard board) {
+        var square = game.enPassantSquare();
+        if (square < 0) {
+            return false;
+        }
+        var us = game.getTeamTurn();
+        var them = us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return (Attacks.pawn(them, square) & board.pieces(us, PAWN)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Tablebase{" + tables.keySet().stream().sorted().toList() + "}";
+    }
+}
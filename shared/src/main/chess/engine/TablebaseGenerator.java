@@ -0,0 +1,493 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static chess.ChessGame.TeamColor.BLACK;
+import static chess.ChessGame.TeamColor.WHITE;
+import static chess.ChessPiece.PieceType.*;
+
+/**
+ * Builds one {@link Tablebase} table by retrograde analysis, backwards from the checkmates.
+ * <p>
+ * A first pass looks at every index once. It drops impossible arrangements, scores the checkmates and stalemates,
+ * scores the captures and promotions from the smaller tables they lead to, and counts the quiet moves that stay
+ * in this table. Then the results spread backwards one ply at a time, from each position to the positions one
+ * quiet move before it:
+ * <ul>
+ * <li>a position lost in n plies makes every position that can move into it won in n + 1</li>
+ * <li>a position won in n plies takes one off the count of every position that can move into it, and a position
+ * whose moves are all counted off is lost, unless a capture or promotion saves it</li>
+ * </ul>
+ * Going one ply at a time means every result is found at its shortest distance to mate. Positions never reached
+ * are draws.
+ */
+final class TablebaseGenerator {
+
+    /**
+     * The deepest result a table byte can hold, a win in 127 plies or a loss in 127 plies
+     */
+    private static final int MAX_DEPTH = 127;
+
+    /**
+     * Set in a count when a capture or promotion reaches at least a draw, so the position can never be lost
+     */
+    private static final int DRAW_ESCAPE = 0x40;
+    private static final int COUNT_MASK = 0x3F;
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {QUEEN, ROOK, BISHOP, KNIGHT};
+    private static final ChessPiece.PieceType[] NO_PROMOTION = {null};
+
+    private final Tablebase tablebase;
+    private final int pieces;
+    private final ChessGame.TeamColor[] colors;
+    private final ChessPiece.PieceType[] types;
+    private final int size;
+
+    /**
+     * Final results once resolved, before that the best capture result, positive for a win in that many plies
+     * and negative for a loss in at least that many plies
+     */
+    private final byte[] values;
+    private final byte[] counts;
+    private final long[] unresolved;
+    private final IntList[] pending = new IntList[MAX_DEPTH + 1];
+    private final Map<Integer, Child> children = new HashMap<>();
+    private boolean mateless = true;
+
+    private final int[] squares = new int[Tablebase.MAX_PIECES];
+    private final int[] moved = new int[Tablebase.MAX_PIECES];
+    private final int[] remaining = new int[Tablebase.MAX_PIECES];
+
+    /**
+     * How a capture or promotion maps onto the smaller table it leads to
+     *
+     * @param layout the child's slot order, indexing the parent's pieces
+     * @param table  the child table
+     */
+    private record Child(Tablebase.Layout layout, Tablebase.Table table) {
+    }
+
+    /**
+     * @param white the white pieces besides the king, strongest first
+     * @param black the black pieces besides the king, strongest first
+     */
+    TablebaseGenerator(Tablebase tablebase, List<ChessPiece.PieceType> white, List<ChessPiece.PieceType> black) {
+        this.tablebase = tablebase;
+        this.pieces = 2 + white.size() + black.size();
+        this.colors = new ChessGame.TeamColor[pieces];
+        this.types = new ChessPiece.PieceType[pieces];
+        colors[0] = WHITE;
+        types[0] = KING;
+        colors[1] = BLACK;
+        types[1] = KING;
+        var slot = 2;
+        for (var type : white) {
+            colors[slot] = WHITE;
+            types[slot++] = type;
+        }
+        for (var type : black) {
+            colors[slot] = BLACK;
+            types[slot++] = type;
+        }
+        this.size = 2 << 6 * pieces;
+        this.values = new byte[size];
+        this.counts = new byte[size];
+        this.unresolved = new long[(size + 63) / 64];
+    }
+
+    /**
+     * @return the table values, indexed as {@link Tablebase#index} does
+     * @throws IOException if a smaller table cannot be loaded
+     */
+    byte[] generate() throws IOException {
+        for (int index = 0; index < size; index++) {
+            initialize(index);
+        }
+        for (int ply = 0; ply <= MAX_DEPTH; ply++) {
+            var list = pending[ply];
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                var index = list.values[i];
+                if (isUnresolved(index)) {
+                    resolve(index, ply);
+                }
+            }
+            pending[ply] = null;
+        }
+        // everything left is a draw, clear the capture results stored while it was open
+        for (int index = 0; index < size; index++) {
+            if (isUnresolved(index)) {
+                values[index] = 0;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return true if no position in the table is checkmate
+     */
+    boolean isMateless() {
+        return mateless;
+    }
+
+    private void initialize(int index) throws IOException {
+        var side = decode(index, squares);
+        if (!isValid(squares, side)) {
+            return;
+        }
+        var them = opponent(side);
+        var occupied = occupancy(squares, -1);
+        var own = colorOccupancy(squares, side);
+        var quiet = 0;
+        var legal = 0;
+        var escape = false;
+        var bestWin = Integer.MAX_VALUE;
+        var worstLoss = 0;
+
+        for (int piece = 0; piece < pieces; piece++) {
+            if (colors[piece] != side) {
+                continue;
+            }
+            var from = squares[piece];
+            long targets;
+            if (types[piece] == PAWN) {
+                targets = pawnTargets(side, from, occupied) | Attacks.pawn(side, from) & (occupied & ~own);
+            } else {
+                targets = attacks(piece, from, occupied) & ~own;
+            }
+            for (; targets != 0; targets &= targets - 1) {
+                var to = Long.numberOfTrailingZeros(targets);
+                var captured = pieceOn(squares, to);
+                if (!isLegalMove(side, piece, to, captured)) {
+                    continue;
+                }
+                legal++;
+                var promotes = types[piece] == PAWN && (to >> 3 == 0 || to >> 3 == 7);
+                if (captured < 0 && !promotes) {
+                    quiet++;
+                    continue;
+                }
+                for (var promotion : promotes ? PROMOTIONS : NO_PROMOTION) {
+                    var value = childValue(piece, to, captured, promotion, them);
+                    if (value < 0) {
+                        // the opponent is mated in -value - 1 plies
+                        bestWin = Math.min(bestWin, -value);
+                    } else if (value == 0) {
+                        escape = true;
+                    } else {
+                        worstLoss = Math.max(worstLoss, value + 1);
+                    }
+                }
+            }
+        }
+
+        setUnresolved(index);
+        if (legal == 0) {
+            if (isAttacked(squares[side == WHITE ? 0 : 1], them, squares, occupied, -1)) {
+                mateless = false;
+                schedule(index, 0);
+            } else {
+                clearUnresolved(index);
+            }
+            return;
+        }
+        counts[index] = (byte) (quiet | (escape ? DRAW_ESCAPE : 0));
+        if (bestWin != Integer.MAX_VALUE) {
+            checkDepth(bestWin);
+            values[index] = (byte) bestWin;
+            schedule(index, bestWin);
+        } else if (!escape && worstLoss > 0) {
+            checkDepth(worstLoss);
+            values[index] = (byte) -worstLoss;
+            if (quiet == 0) {
+                schedule(index, worstLoss);
+            }
+        } else if (quiet == 0) {
+            // every move is a capture or promotion and the best of them draws
+            clearUnresolved(index);
+        }
+    }
+
+    /**
+     * Fixes the result of a position at the given ply and spreads it to the positions one quiet move before it
+     */
+    private void resolve(int index, int ply) {
+        var won = (ply & 1) == 1;
+        values[index] = (byte) (won ? ply : -ply - 1);
+        clearUnresolved(index);
+
+        var side = decode(index, squares);
+        var mover = opponent(side);
+        var occupied = occupancy(squares, -1);
+        System.arraycopy(squares, 0, moved, 0, pieces);
+        for (int piece = 0; piece < pieces; piece++) {
+            if (colors[piece] != mover) {
+                continue;
+            }
+            var to = squares[piece];
+            long origins;
+            if (types[piece] == PAWN) {
+                origins = pawnOrigins(mover, to, occupied);
+            } else {
+                origins = attacks(piece, to, occupied) & ~occupied;
+            }
+            for (; origins != 0; origins &= origins - 1) {
+                moved[piece] = Long.numberOfTrailingZeros(origins);
+                // before the move the team that moved was to move, and the other king cannot have been in check
+                if (isAttacked(moved[side == WHITE ? 0 : 1], mover, moved, occupied ^ 1L << to ^ 1L << moved[piece], -1)) {
+                    continue;
+                }
+                var previous = encode(mover, moved);
+                if (!isUnresolved(previous)) {
+                    continue;
+                }
+                if (!won) {
+                    if (values[previous] != ply + 1) {
+                        checkDepth(ply + 1);
+                        values[previous] = (byte) (ply + 1);
+                        schedule(previous, ply + 1);
+                    }
+                } else {
+                    var count = counts[previous] - 1;
+                    counts[previous] = (byte) count;
+                    if ((count & COUNT_MASK) == 0 && (count & DRAW_ESCAPE) == 0 && values[previous] <= 0) {
+                        var depth = Math.max(ply + 1, -values[previous]);
+                        checkDepth(depth);
+                        schedule(previous, depth);
+                    }
+                }
+            }
+            moved[piece] = to;
+        }
+    }
+
+    /**
+     * @return the value of the position after a capture or promotion, from the point of view of the team to move
+     * there, looked up in the smaller table
+     */
+    private int childValue(int piece, int to, int captured, ChessPiece.PieceType promotion, ChessGame.TeamColor side)
+            throws IOException {
+        var key = piece << 8 | (captured + 1) << 4 | (promotion == null ? 0 : promotion.ordinal() + 1);
+        var child = children.get(key);
+        if (child == null) {
+            child = child(piece, captured, promotion);
+            children.put(key, child);
+        }
+        System.arraycopy(squares, 0, moved, 0, pieces);
+        moved[piece] = to;
+        for (int slot = 0, i = 0; i < pieces; i++) {
+            if (i != captured) {
+                remaining[slot++] = moved[i];
+            }
+        }
+        return child.table().values()[Tablebase.index(child.layout(), remaining, side)];
+    }
+
+    private Child child(int piece, int captured, ChessPiece.PieceType promotion) throws IOException {
+        List<ChessGame.TeamColor> childColors = new ArrayList<>();
+        List<ChessPiece.PieceType> childTypes = new ArrayList<>();
+        for (int i = 0; i < pieces; i++) {
+            if (i != captured) {
+                childColors.add(colors[i]);
+                childTypes.add(i == piece && promotion != null ? promotion : types[i]);
+            }
+        }
+        var layout = Tablebase.layout(childColors.toArray(new ChessGame.TeamColor[0]),
+                childTypes.toArray(new ChessPiece.PieceType[0]));
+        return new Child(layout, tablebase.table(layout.name()));
+    }
+
+    /**
+     * @return false if two pieces share a square, a pawn stands on the first or last row,
+     * or the team not to move is in check
+     */
+    private boolean isValid(int[] squares, ChessGame.TeamColor side) {
+        var occupied = 0L;
+        for (int piece = 0; piece < pieces; piece++) {
+            var bit = 1L << squares[piece];
+            if ((occupied & bit) != 0) {
+                return false;
+            }
+            occupied |= bit;
+            if (types[piece] == PAWN && (squares[piece] >> 3 == 0 || squares[piece] >> 3 == 7)) {
+                return false;
+            }
+        }
+        var them = opponent(side);
+        return !isAttacked(squares[them == WHITE ? 0 : 1], side, squares, occupied, -1);
+    }
+
+    private boolean isLegalMove(ChessGame.TeamColor side, int piece, int to, int captured) {
+        System.arraycopy(squares, 0, moved, 0, pieces);
+        moved[piece] = to;
+        var occupied = occupancy(moved, captured);
+        return !isAttacked(moved[side == WHITE ? 0 : 1], opponent(side), moved, occupied, captured);
+    }
+
+    /**
+     * @param skip a captured piece to leave out, or -1
+     * @return true if a piece of the given color attacks the square
+     */
+    private boolean isAttacked(int square, ChessGame.TeamColor byColor, int[] squares, long occupied, int skip) {
+        var bit = 1L << square;
+        for (int piece = 0; piece < pieces; piece++) {
+            if (piece == skip || colors[piece] != byColor) {
+                continue;
+            }
+            var attacks = types[piece] == PAWN ? Attacks.pawn(byColor, squares[piece]) : attacks(piece, squares[piece], occupied);
+            if ((attacks & bit) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long attacks(int piece, int square, long occupied) {
+        return switch (types[piece]) {
+            case KING -> Attacks.king(square);
+            case QUEEN -> Attacks.queen(square, occupied);
+            case BISHOP -> Attacks.bishop(square, occupied);
+            case KNIGHT -> Attacks.knight(square);
+            case ROOK -> Attacks.rook(square, occupied);
+            case PAWN -> throw new IllegalArgumentException("Pawns move and attack differently");
+        };
+    }
+
+    /**
+     * @return the empty squares a pawn can push to, including the promotion row
+     */
+    private static long pawnTargets(ChessGame.TeamColor color, int from, long occupied) {
+        var step = color == WHITE ? 8 : -8;
+        var one = from + step;
+        if ((occupied & 1L << one) != 0) {
+            return 0;
+        }
+        var targets = 1L << one;
+        var startRow = color == WHITE ? 1 : 6;
+        if (from >> 3 == startRow && (occupied & 1L << one + step) == 0) {
+            targets |= 1L << one + step;
+        }
+        return targets;
+    }
+
+    /**
+     * @return the squares a pawn on the given square could have pushed from, never the first row
+     */
+    private static long pawnOrigins(ChessGame.TeamColor color, int to, long occupied) {
+        var step = color == WHITE ? 8 : -8;
+        var one = to - step;
+        var row = one >> 3;
+        if (row == 0 || row == 7 || (occupied & 1L << one) != 0) {
+            return 0;
+        }
+        var origins = 1L << one;
+        var doubleRow = color == WHITE ? 3 : 4;
+        if (to >> 3 == doubleRow && (occupied & 1L << one - step) == 0) {
+            origins |= 1L << one - step;
+        }
+        return origins;
+    }
+
+    private long occupancy(int[] squares, int skip) {
+        var occupied = 0L;
+        for (int piece = 0; piece < pieces; piece++) {
+            if (piece != skip) {
+                occupied |= 1L << squares[piece];
+            }
+        }
+        return occupied;
+    }
+
+    private long colorOccupancy(int[] squares, ChessGame.TeamColor color) {
+        var occupied = 0L;
+        for (int piece = 0; piece < pieces; piece++) {
+            if (colors[piece] == color) {
+                occupied |= 1L << squares[piece];
+            }
+        }
+        return occupied;
+    }
+
+    private int pieceOn(int[] squares, int square) {
+        for (int piece = 0; piece < pieces; piece++) {
+            if (squares[piece] == square) {
+                return piece;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the team to move, with the squares written into the array
+     */
+    private ChessGame.TeamColor decode(int index, int[] squares) {
+        for (int piece = pieces - 1; piece >= 0; piece--) {
+            squares[piece] = index & 63;
+            index >>>= 6;
+        }
+        return index == 0 ? WHITE : BLACK;
+    }
+
+    private int encode(ChessGame.TeamColor side, int[] squares) {
+        var index = side == WHITE ? 0 : 1;
+        for (int piece = 0; piece < pieces; piece++) {
+            index = index << 6 | squares[piece];
+        }
+        return index;
+    }
+
+    private void schedule(int index, int ply) {
+        if (pending[ply] == null) {
+            pending[ply] = new IntList();
+        }
+        pending[ply].add(index);
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalStateException("Distance to mate of " + depth + " plies does not fit in a table");
+        }
+    }
+
+    private boolean isUnresolved(int index) {
+        return (unresolved[index >>> 6] & 1L << index) != 0;
+    }
+
+    private void setUnresolved(int index) {
+        unresolved[index >>> 6] |= 1L << index;
+    }
+
+    private void clearUnresolved(int index) {
+        unresolved[index >>> 6] &= ~(1L << index);
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == WHITE ? BLACK : WHITE;
+    }
+
+    /**
+     * A growable list of indexes, boxing millions of them would cost several times the memory
+     */
+    private static final class IntList {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
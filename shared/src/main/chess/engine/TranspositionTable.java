@@ -0,0 +1,219 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of searched positions, keyed by Zobrist key and preallocated as one long array.
+ * <p>
+ * Each entry is two longs, the key XORed with the data and the data itself. Threads read and write entries
+ * without locks. If two threads write the same entry at once, the halves may come from different writes, so
+ * a probe XORs them back together and only accepts the entry when the result is the key it asked for.
+ * The generation is not shared that way, only the one engine that owns a table moves it on between searches.
+ * <p>
+ * Entries sit in buckets of two. A store replaces the entry holding the same key, otherwise the entry with
+ * the shallowest depth, counting entries left from earlier searches as shallower.
+ * <pre>
+ * data bits  0-14  move, the {@link chess.PackedMove#key(int)} of the best move, 0 for none
+ * data bit   15    set on every stored entry, so an empty entry never matches
+ * data bits 16-31  score
+ * data bits 32-39  depth
+ * data bits 40-41  bound, one of {@link #EXACT}, {@link #LOWER} and {@link #UPPER}
+ * data bits 42-47  generation of the search that stored it
+ * </pre>
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_SIZE = 2;
+    private static final long VALID = 1L << 15;
+    private static final int FILL_SAMPLE = 1000;
+
+    private final long[] table;
+    private final long bucketMask;
+    private final int megabytes;
+    private int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * @param megabytes the memory to use, rounded down to a power of two number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Size must be at least 1 MB: " + megabytes);
+        }
+        var entries = Long.highestOneBit(megabytes * 1024L * 1024L / ENTRY_BYTES);
+        if (entries * 2 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Size is too large for one table: " + megabytes + " MB");
+        }
+        this.table = new long[(int) entries * 2];
+        this.bucketMask = entries / BUCKET_SIZE - 1;
+        this.megabytes = megabytes;
+    }
+
+    /**
+     * @return the entry data for the key, or 0 if the table holds no entry for it
+     */
+    public long probe(long key) {
+        probes.increment();
+        var index = bucketIndex(key);
+        for (int i = index; i < index + BUCKET_SIZE * 2; i += 2) {
+            var data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0) {
+                hits.increment();
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param move  the best move found, as a {@link chess.PackedMove}, or 0 if there is none
+     * @param score the score from the point of view of the team to move at this node
+     * @param bound whether the score is exact, a lower bound after a cutoff or an upper bound when no move raised alpha
+     * @param ply   the distance from the root, mate scores are stored relative to this node
+     */
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        var index = bucketIndex(key);
+        var replace = index;
+        var replaceWorth = Integer.MAX_VALUE;
+        for (int i = index; i < index + BUCKET_SIZE * 2; i += 2) {
+            var data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0) {
+                replace = i;
+                // keep the best move of an earlier search of this position if this one found none
+                if (move == 0) {
+                    move = move(data);
+                }
+                break;
+            }
+            var worth = data == 0 ? Integer.MIN_VALUE : depth(data) - (generation(data) == generation ? 0 : 256);
+            if (worth < replaceWorth) {
+                replace = i;
+                replaceWorth = worth;
+            }
+        }
+        var data = (move & 0x7FFFL) | VALID | (toStored(score, ply) & 0xFFFFL) << 16
+                | (long) Math.min(depth, 255) << 32 | (long) bound << 40 | (long) generation << 42;
+        table[replace] = key ^ data;
+        table[replace + 1] = data;
+    }
+
+    /**
+     * @return the packed move key of an entry, 0 if there is none
+     */
+    public static int move(long data) {
+        return (int) (data & 0x7FFF);
+    }
+
+    /**
+     * @param ply the distance from the root of the node probing the entry
+     * @return the score of an entry, with mate scores made relative to the root again
+     */
+    public static int score(long data, int ply) {
+        var score = (int) (short) (data >>> 16);
+        if (score >= Searcher.MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -Searcher.MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 32 & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 40 & 3);
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 42 & 0x3F);
+    }
+
+    /**
+     * Mate scores count plies from the root, stored entries count them from the node instead,
+     * so the entry is still right when the position is reached at another ply
+     */
+    private static int toStored(int score, int ply) {
+        if (score >= Searcher.MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -Searcher.MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private int bucketIndex(long key) {
+        return (int) (key & bucketMask) * BUCKET_SIZE * 2;
+    }
+
+    /**
+     * Starts a new search, entries from earlier searches are replaced first. Called by the thread that starts the
+     * search before any other thread searches, and never for a table that engines share.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    /**
+     * Removes every entry and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * @return the fraction of probes that found an entry, 0 before the first probe
+     */
+    public double hitRate() {
+        var probes = this.probes.sum();
+        return probes == 0 ? 0 : (double) hits.sum() / probes;
+    }
+
+    /**
+     * Samples the first entries of the table, which fill at the same rate as the rest
+     *
+     * @return the fraction of entries written by the current search
+     */
+    public double fillRate() {
+        var sample = Math.min(FILL_SAMPLE, table.length / 2);
+        var filled = 0;
+        for (int i = 0; i < sample * 2; i += 2) {
+            var data = table[i + 1];
+            if (data != 0 && generation(data) == generation) {
+                filled++;
+            }
+        }
+        return (double) filled / sample;
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    public int megabytes() {
+        return megabytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable{%d MB, %d entries, hit rate: %.1f%%, fill rate: %.1f%%}",
+                megabytes, capacity(), hitRate() * 100, fillRate() * 100);
+    }
+}
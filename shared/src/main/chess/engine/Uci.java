@@ -0,0 +1,427 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Fen;
+import chess.Game;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the engine under the Universal Chess Interface, so chess GUIs and engine testing tools can play it over
+ * standard input and output. Commands are read on the calling thread and each search runs on a thread of its own,
+ * so {@code stop}, {@code ponderhit} and {@code isready} are answered while the engine thinks.
+ * <p>
+ * Supported are {@code uci}, {@code isready}, {@code setoption}, {@code ucinewgame}, {@code position},
+ * {@code go} with {@code depth}, {@code movetime}, {@code nodes}, {@code wtime}, {@code btime}, {@code winc},
+ * {@code binc}, {@code movestogo}, {@code infinite} and {@code ponder}, then {@code stop}, {@code ponderhit} and
+ * {@code quit}. A {@code go} without a depth, time or node limit is searched like {@code go infinite}. Every
+ * completed iteration is reported with an {@code info} line.
+ * <p>
+ * Commands that change the position or the engine wait for a running search to answer first, and so does the end of
+ * the input, so a script piped in gets every answer. An infinite or pondering search is stopped instead.
+ */
+public final class Uci {
+
+    private static final String NAME = "chess";
+
+    /**
+     * A clock search keeps this much of the remaining time back for the time the GUI takes to pass moves along
+     */
+    private static final long OVERHEAD_MILLIS = 50;
+
+    /**
+     * Assumed moves left in the game when the GUI does not say
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "uci-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Engine engine;
+    private int hashMegabytes = Engine.DEFAULT_HASH_MB;
+    private int threads = 1;
+    private Game game = Fen.parse(Fen.START);
+
+    private Thread searchThread;
+    private volatile boolean stopRequested;
+    private boolean pondering;
+    private boolean infinite;
+    /**
+     * The time budget of a pondering search, applied from the ponderhit on, 0 for none
+     */
+    private long ponderMillis;
+    private ScheduledFuture<?> ponderStop;
+
+    public Uci(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+        this.engine = newEngine(new PieceSquareEvaluator());
+    }
+
+    public static void main(String[] args) throws IOException {
+        new Uci(new BufferedReader(new InputStreamReader(System.in)), System.out).run();
+    }
+
+    /**
+     * Reads and answers commands until {@code quit} or the end of the input
+     *
+     * @throws IOException if the input cannot be read
+     */
+    public void run() throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line.trim())) {
+                    stopSearch();
+                    return;
+                }
+            }
+            finishSearch();
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * @return false if the command was {@code quit}
+     */
+    private boolean handle(String line) {
+        var tokens = line.isEmpty() ? new String[0] : line.split("\\s+");
+        if (tokens.length == 0) {
+            return true;
+        }
+        switch (tokens[0]) {
+            case "uci" -> identify();
+            case "isready" -> send("readyok");
+            case "setoption" -> setOption(tokens);
+            case "ucinewgame" -> {
+                finishSearch();
+                engine.clearHash();
+            }
+            case "position" -> position(tokens);
+            case "go" -> go(tokens);
+            case "stop" -> stopSearch();
+            case "ponderhit" -> ponderHit();
+            case "quit" -> {
+                return false;
+            }
+            default -> send("info string Unknown command: " + line);
+        }
+        return true;
+    }
+
+    private void identify() {
+        send("id name " + NAME);
+        send("id author " + NAME + " contributors");
+        send("option name Hash type spin default " + Engine.DEFAULT_HASH_MB + " min 1 max 4096");
+        send("option name Threads type spin default 1 min 1 max 256");
+        send("option name Clear Hash type button");
+        send("option name Ponder type check default false");
+        send("option name EvalFile type string default <empty>");
+        send("uciok");
+    }
+
+    /**
+     * Handles {@code setoption name <name> [value <value>]}, where the name and value may contain spaces
+     */
+    private void setOption(String[] tokens) {
+        var line = String.join(" ", tokens);
+        var nameStart = line.indexOf(" name ");
+        if (nameStart < 0) {
+            send("info string setoption needs a name");
+            return;
+        }
+        var valueStart = line.indexOf(" value ");
+        var name = (valueStart < 0 ? line.substring(nameStart + 6) : line.substring(nameStart + 6, valueStart)).trim();
+        var value = valueStart < 0 ? "" : line.substring(valueStart + 7).trim();
+        finishSearch();
+        try {
+            switch (name.toLowerCase()) {
+                case "hash" -> {
+                    hashMegabytes = Integer.parseInt(value);
+                    engine.setHashSize(hashMegabytes);
+                }
+                case "threads" -> {
+                    threads = Integer.parseInt(value);
+                    engine.setThreads(threads);
+                }
+                case "clear hash" -> engine.clearHash();
+                case "ponder" -> {
+                    // the GUI decides when to ponder, the engine needs nothing set up for it
+                }
+                case "evalfile" -> engine = newEngine(value.isEmpty() || value.equals("<empty>")
+                        ? new PieceSquareEvaluator()
+                        : new NnueEvaluator(Network.load(Path.of(value))));
+                default -> send("info string Unknown option: " + name);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            send("info string Cannot set " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handles {@code position (startpos | fen <fen>) [moves <move>...]}
+     */
+    private void position(String[] tokens) {
+        finishSearch();
+        var words = Arrays.asList(tokens);
+        var movesAt = words.indexOf("moves");
+        var end = movesAt < 0 ? tokens.length : movesAt;
+        Game position;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("startpos")) {
+                position = Fen.parse(Fen.START);
+            } else if (tokens.length > 1 && tokens[1].equals("fen")) {
+                position = Fen.parse(String.join(" ", words.subList(2, end)));
+            } else {
+                send("info string position needs startpos or fen");
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+        for (int i = end + 1; i < tokens.length; i++) {
+            try {
+                position.makeMove(parseMove(tokens[i]));
+            } catch (IllegalArgumentException | InvalidMoveException e) {
+                send("info string Illegal move " + tokens[i] + ", the moves from there on are ignored");
+                break;
+            }
+        }
+        game = position;
+    }
+
+    /**
+     * Starts a search on its own thread, the answer is sent when it ends
+     */
+    private void go(String[] tokens) {
+        finishSearch();
+        var depth = SearchLimits.MAX_DEPTH;
+        var depthLimited = false;
+        long moveTime = 0;
+        long nodes = 0;
+        long[] clock = new long[2];
+        long[] increment = new long[2];
+        var movesToGo = 0;
+        var ponder = false;
+        var searchForever = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> {
+                        depth = Math.max(1, Math.min(SearchLimits.MAX_DEPTH, Integer.parseInt(tokens[++i])));
+                        depthLimited = true;
+                    }
+                    case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "wtime" -> clock[0] = Long.parseLong(tokens[++i]);
+                    case "btime" -> clock[1] = Long.parseLong(tokens[++i]);
+                    case "winc" -> increment[0] = Long.parseLong(tokens[++i]);
+                    case "binc" -> increment[1] = Long.parseLong(tokens[++i]);
+                    case "movestogo" -> movesToGo = Integer.parseInt(tokens[++i]);
+                    case "ponder" -> ponder = true;
+                    case "infinite" -> searchForever = true;
+                    default -> send("info string Unknown go parameter: " + tokens[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string Cannot read go parameters: " + String.join(" ", tokens));
+            return;
+        }
+
+        var us = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 0 : 1;
+        var budget = moveTime;
+        if (budget == 0 && clock[us] > 0) {
+            var left = Math.max(1, clock[us] - OVERHEAD_MILLIS);
+            budget = Math.min(left, left / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment[us] * 3 / 4);
+            budget = Math.max(1, budget);
+        }
+        // with nothing to end it, a search would run to the deepest depth, so it waits for stop instead
+        if (!depthLimited && budget == 0 && nodes == 0) {
+            searchForever = true;
+        }
+
+        Engine.StopToken stopToken;
+        synchronized (this) {
+            if (ponderStop != null) {
+                ponderStop.cancel(false);
+                ponderStop = null;
+            }
+            stopRequested = false;
+            pondering = ponder;
+            infinite = searchForever;
+            ponderMillis = ponder ? budget : 0;
+            // taken with the lock held, so a stop from here on reaches this search even before it starts
+            stopToken = engine.newStopToken();
+        }
+        // a pondering search has no clock until the opponent plays the expected move
+        var limits = new SearchLimits(depth, ponder || searchForever ? 0 : budget, nodes);
+        var position = game.copy();
+        searchThread = new Thread(() -> search(position, limits, stopToken), "uci-search");
+        searchThread.start();
+    }
+
+    private void search(Game position, SearchLimits limits, Engine.StopToken stopToken) {
+        var result = engine.search(position, limits, stopToken);
+        // the protocol holds the answer back until the GUI ends an infinite or pondering search
+        synchronized (this) {
+            while ((infinite || pondering) && !stopRequested) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (result.bestMove() == null) {
+            send("bestmove 0000");
+            return;
+        }
+        var answer = "bestmove " + format(result.bestMove());
+        if (result.pv().size() > 1) {
+            answer += " ponder " + format(result.pv().get(1));
+        }
+        send(answer);
+    }
+
+    private synchronized void ponderHit() {
+        if (!pondering) {
+            return;
+        }
+        pondering = false;
+        if (ponderMillis > 0) {
+            ponderStop = timer.schedule(this::requestStop, ponderMillis, TimeUnit.MILLISECONDS);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Ends the running search, if any, and waits for it to send its answer
+     */
+    private void stopSearch() {
+        requestStop();
+        joinSearch();
+    }
+
+    /**
+     * A GUI waits for the answer before sending a new position, a script may not. A search with limits is left
+     * to reach them, one that would never end on its own is stopped.
+     */
+    private void finishSearch() {
+        synchronized (this) {
+            if (infinite || pondering) {
+                requestStop();
+            }
+        }
+        joinSearch();
+    }
+
+    private synchronized void requestStop() {
+        stopRequested = true;
+        engine.stop();
+        notifyAll();
+    }
+
+    /**
+     * Waits for the running search, if any, to send its answer
+     */
+    private void joinSearch() {
+        var thread = searchThread;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private Engine newEngine(Evaluator evaluator) {
+        var result = new Engine(evaluator);
+        result.setHashSize(hashMegabytes);
+        result.setThreads(threads);
+        result.setListener(this::info);
+        return result;
+    }
+
+    private void info(SearchResult result) {
+        var score = result.isMate() ? "mate " + result.mateIn() : "cp " + result.score();
+        List<String> pv = new ArrayList<>();
+        for (var move : result.pv()) {
+            pv.add(format(move));
+        }
+        send("info depth " + result.depth() + " score " + score + " nodes " + result.nodes() + " nps "
+                + result.nodesPerSecond() + " time " + result.timeMillis() + " pv " + String.join(" ", pv));
+    }
+
+    /**
+     * @return the move in long algebraic notation, such as e2e4, e1g1 for castling or e7e8q for a promotion
+     */
+    static String format(ChessMove move) {
+        var text = move.getStartPosition().toString() + move.getEndPosition();
+        var promotion = move.getPromotionPiece();
+        if (promotion == null) {
+            return text;
+        }
+        return text + switch (promotion) {
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            default -> throw new IllegalArgumentException("Cannot promote to " + promotion);
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a move in long algebraic notation
+     */
+    static ChessMove parseMove(String text) {
+        if (!text.matches("[a-h][1-8][a-h][1-8][qrbn]?")) {
+            throw new IllegalArgumentException("Not a move: " + text);
+        }
+        var from = Position.of(text.charAt(1) - '0', text.charAt(0) - 'a' + 1);
+        var to = Position.of(text.charAt(3) - '0', text.charAt(2) - 'a' + 1);
+        if (text.length() == 4) {
+            return new Move(from, to);
+        }
+        var promotion = switch (text.charAt(4)) {
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            default -> ChessPiece.PieceType.KNIGHT;
+        };
+        return new Move(from, to, promotion);
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package chess.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link NetworkKernels} on the JDK Vector API, as wide as the processor allows. Only created through
+ * {@link NetworkKernels#best()} once the {@code jdk.incubator.vector} module is known to be present.
+ * Each loop finishes the values past the last whole vector one at a time.
+ */
+final class VectorKernels implements NetworkKernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    /**
+     * The same width in bits as {@link #SHORTS}, so a short vector widens into two int vectors
+     */
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        var bound = SHORTS.loopBound(accumulator.length);
+        var i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        var bound = SHORTS.loopBound(accumulator.length);
+        var i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int clippedDot(short[] accumulator, short[] weights, int offset, int max) {
+        var sums = IntVector.zero(INTS);
+        var bound = SHORTS.loopBound(accumulator.length);
+        var i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            var clipped = ShortVector.fromArray(SHORTS, accumulator, i).max((short) 0).min((short) max);
+            var weight = ShortVector.fromArray(SHORTS, weights, offset + i);
+            // widened before multiplying, a clipped value times a weight does not fit in a short
+            for (int part = 0; part < 2; part++) {
+                var values = (IntVector) clipped.convertShape(VectorOperators.S2I, INTS, part);
+                var factors = (IntVector) weight.convertShape(VectorOperators.S2I, INTS, part);
+                sums = sums.add(values.mul(factors));
+            }
+        }
+        var sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < accumulator.length; i++) {
+            sum += Math.min(Math.max(accumulator[i], 0), max) * weights[offset + i];
+        }
+        return sum;
+    }
+}
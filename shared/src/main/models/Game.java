@@ -1,8 +1,10 @@
 package models;
 
+import chess.BitBoard;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.InvalidMoveException;
+import chess.engine.Tablebase;
 import webSocketMessages.Notification;
 
 import java.util.Objects;
@@ -153,17 +155,40 @@ public class Game {
         this.game.makeMove(move);
 
         StringBuilder sb = new StringBuilder();
-        if (game.isInCheckmate(game.getTeamTurn())) {
-            winner = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? blackUsername : whiteUsername;
-            gameOver = true;
-            sb.append("Checkmate! ");
-        } else if (game.isInCheck(game.getTeamTurn())) {
-            sb.append("Check! ");
-        } else if (game.isInStalemate(game.getTeamTurn())) {
-            gameOver = true;
-            sb.append("Stalemate! ");
+        switch (game.getStatus()) {
+            case CHECKMATE -> {
+                winner = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? blackUsername : whiteUsername;
+                gameOver = true;
+                sb.append("Checkmate! ");
+            }
+            case CHECK -> {
+                sb.append("Check! ");
+                checkDeadPosition(sb);
+            }
+            case STALEMATE -> {
+                gameOver = true;
+                sb.append("Stalemate! ");
+            }
+            case ONGOING -> checkDeadPosition(sb);
         }
         sb.append(String.format("%s made move: %s", username, move.toString()));
         return new Notification(sb.toString());
     }
+
+    /**
+     * Ends the game as a draw if neither player can ever checkmate with the pieces left, such as king and knight
+     * against king. The shared tablebase is only asked once so few pieces are left that it may cover the position,
+     * which for four pieces depends on the tables in its cache directory.
+     */
+    private void checkDeadPosition(StringBuilder sb) {
+        if (!(game instanceof chess.Game position)
+                || Long.bitCount(BitBoard.of(position.getBoard()).occupied()) > Tablebase.MAX_PIECES) {
+            return;
+        }
+        var probe = Tablebase.shared().probe(position);
+        if (probe != null && probe.dead()) {
+            gameOver = true;
+            sb.append("Draw by insufficient material! ");
+        }
+    }
 }
@@ -13,10 +13,24 @@ import java.lang.reflect.Type;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Set;
 
 public class ModelSerializer {
 
+    /**
+     * Serializes a model, chess games are written as FEN strings rather than their fields
+     *
+     * @param model the model to serialize
+     * @return the JSON text
+     */
+    public static String serialize(Object model) {
+        return new GsonBuilder()
+                .registerTypeHierarchyAdapter(chess.ChessGame.class, new FenSerializer())
+                .create()
+                .toJson(model);
+    }
+
     public static <T> T deserialize(String json, Class<T> responseClass) {
         return deserialize(new StringReader(json), responseClass);
     }
@@ -26,25 +40,43 @@ public class ModelSerializer {
         gsonBuilder.registerTypeAdapter(chess.Game.class, new ChessGameAdapter());
         gsonBuilder.registerTypeAdapter(chess.ChessGame.class, new ChessGameAdapter());
         gsonBuilder.registerTypeAdapter(chess.Board.class, new ChessBoardAdapter());
+        gsonBuilder.registerTypeAdapter(chess.BitBoard.class, new BitBoardAdapter());
         gsonBuilder.registerTypeAdapter(chess.Piece.class, new ChessPieceAdapter());
         gsonBuilder.registerTypeAdapter(ListGamesResponse.class, new ListGamesResponseAdapter());
         gsonBuilder.registerTypeAdapter(chess.ChessMove.class, new ChessMoveAdapter());
+        gsonBuilder.registerTypeAdapter(chess.Position.class, new PositionAdapter());
         return gsonBuilder.create().fromJson(reader, responseClass);
     }
 
     /**
-     * Deserializes a game from the database
+     * Deserializes a game from the database, stored as FEN or, for games saved before FEN, as JSON
      *
      * @param resultSet the result set to deserialize
      * @return the deserialized game
      */
     public static chess.Game jsonToGame(ResultSet resultSet) throws SQLException {
+        var game = resultSet.getString("game");
+        if (!game.startsWith("{")) {
+            return chess.Fen.parse(game);
+        }
         var builder = new GsonBuilder();
         builder.registerTypeAdapter(chess.Game.class, new ChessGameAdapter());
         builder.registerTypeAdapter(chess.Board.class, new ChessBoardAdapter());
+        builder.registerTypeAdapter(chess.BitBoard.class, new BitBoardAdapter());
         builder.registerTypeAdapter(chess.Piece.class, new ChessPieceAdapter());
         var gson = builder.create();
-        return gson.fromJson(resultSet.getString("game"), chess.Game.class);
+        return gson.fromJson(game, chess.Game.class);
+    }
+
+    /**
+     * Serializer for {@link chess.ChessGame}, the game is written as its FEN string
+     */
+    public static class FenSerializer implements JsonSerializer<chess.ChessGame> {
+
+        @Override
+        public JsonElement serialize(chess.ChessGame game, Type type, JsonSerializationContext jsonSerializationContext) {
+            return new JsonPrimitive(game.toFen());
+        }
     }
 
     public static class ChessMoveAdapter implements JsonDeserializer<chess.ChessMove> {
@@ -81,14 +113,78 @@ public class ModelSerializer {
 
         @Override
         public chess.Game deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
+            if (jsonElement.isJsonPrimitive()) {
+                try {
+                    return chess.Fen.parse(jsonElement.getAsString());
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+            }
             var jsonObject = jsonElement.getAsJsonObject();
 
-            // give context to each element as necessary, boards are handled by ChessBoardAdapter, pieces are handled by ChessPieceAdapter
-            chess.Board board = jsonDeserializationContext.deserialize(jsonObject.get("board"), chess.Board.class);
+            // games saved before FEN store their fields, give context to each element as necessary, boards are handled by BitBoardAdapter or ChessBoardAdapter, pieces are handled by ChessPieceAdapter
+            // games saved before the BitBoard was introduced store the board as a 2D array under "board"
+            var boardObject = jsonObject.get("board").getAsJsonObject();
+            var boardClass = boardObject.has("squares") ? chess.BitBoard.class : chess.Board.class;
+            chess.ChessBoard board = jsonDeserializationContext.deserialize(boardObject, boardClass);
             ChessGame.TeamColor teamTurn = ChessGame.TeamColor.valueOf(jsonObject.get("teamTurn").getAsString());
-            chess.Piece isEnPassant = jsonDeserializationContext.deserialize(jsonObject.get("isEnPassant"), chess.Piece.class);
-            Set<ChessPiece> hasMoved = jsonDeserializationContext.deserialize(jsonObject.get("hasMoved"), Set.class);
-            return new chess.Game(board, teamTurn, isEnPassant, hasMoved);
+            if (jsonObject.has("castlingRights")) {
+                return new chess.Game(board, teamTurn, jsonObject.get("castlingRights").getAsInt(), jsonObject.get("enPassantSquare").getAsInt());
+            }
+            // games saved before castling rights were a bitmask name the moved kings and rooks and the en passant pawn by piece id
+            return new chess.Game(board, teamTurn, legacyCastlingRights(jsonObject, boardObject), legacyEnPassantSquare(jsonObject, boardObject));
+        }
+
+        private static int legacyCastlingRights(JsonObject game, JsonObject board) {
+            Set<Integer> moved = new HashSet<>();
+            if (game.get("hasMoved") instanceof JsonArray hasMoved) {
+                for (var piece : hasMoved) {
+                    moved.add(piece.getAsJsonObject().get("id").getAsInt());
+                }
+            }
+            return legacyCastlingRights(board, moved, 0) | legacyCastlingRights(board, moved, 56) << 2;
+        }
+
+        /**
+         * @param baseSquare the square index of the team's a-file corner
+         * @return bit 0 set for kingside and bit 1 set for queenside castling rights
+         */
+        private static int legacyCastlingRights(JsonObject board, Set<Integer> moved, int baseSquare) {
+            if (hasMoved(board, moved, baseSquare + 4)) {
+                return 0;
+            }
+            return (hasMoved(board, moved, baseSquare + 7) ? 0 : 1) | (hasMoved(board, moved, baseSquare) ? 0 : 2);
+        }
+
+        /**
+         * An empty square counts as unmoved, the game masks its castling rights by where the kings and rooks stand
+         */
+        private static boolean hasMoved(JsonObject board, Set<Integer> moved, int square) {
+            return legacyPiece(board, square) instanceof JsonObject piece && piece.has("id") && moved.contains(piece.get("id").getAsInt());
+        }
+
+        /**
+         * @return the square the en passant pawn passed over, or -1 if there is none
+         */
+        private static int legacyEnPassantSquare(JsonObject game, JsonObject board) {
+            if (!(game.get("isEnPassant") instanceof JsonObject pawn) || !pawn.has("id")) {
+                return -1;
+            }
+            var id = pawn.get("id").getAsInt();
+            // a white pawn that just moved two squares stands on row 4, a black one on row 5
+            for (int square = 24; square < 40; square++) {
+                if (legacyPiece(board, square) instanceof JsonObject piece && piece.has("id") && piece.get("id").getAsInt() == id) {
+                    return square < 32 ? square - 8 : square + 8;
+                }
+            }
+            return -1;
+        }
+
+        private static JsonElement legacyPiece(JsonObject board, int square) {
+            if (board.has("squares")) {
+                return board.getAsJsonArray("squares").get(square);
+            }
+            return board.getAsJsonArray("board").get(square >> 3).getAsJsonArray().get(square & 7);
         }
     }
 
@@ -107,6 +203,21 @@ public class ModelSerializer {
         }
     }
 
+    /**
+     * Deserializer for the {@link chess.BitBoard} class, the bitboards are rebuilt from the serialized squares
+     */
+    public static class BitBoardAdapter implements JsonDeserializer<chess.BitBoard> {
+
+        @Override
+        public chess.BitBoard deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
+            var jsonObject = jsonElement.getAsJsonObject();
+
+            // give context to the pieces in the array
+            chess.Piece[] squares = jsonDeserializationContext.deserialize(jsonObject.get("squares"), chess.Piece[].class);
+            return new chess.BitBoard(squares);
+        }
+    }
+
     /**
      * Deserializer for the {@link chess.Piece} class
      */
@@ -116,11 +227,22 @@ public class ModelSerializer {
         public chess.Piece deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
             var jsonObject = jsonElement.getAsJsonObject();
 
-            // extract all elements, return a new piece with the same elements
+            // extract all elements and return the shared piece, an "id" left by older saves is ignored
             ChessGame.TeamColor teamColor = ChessGame.TeamColor.valueOf(jsonObject.get("teamColor").getAsString());
             ChessPiece.PieceType pieceType = ChessPiece.PieceType.valueOf(jsonObject.get("pieceType").getAsString());
-            int id = jsonObject.get("id").getAsInt();
-            return new chess.Piece(teamColor, pieceType, id);
+            return chess.Piece.of(teamColor, pieceType);
+        }
+    }
+
+    /**
+     * Deserializer for the {@link chess.Position} class, returns the shared instance for the square
+     */
+    public static class PositionAdapter implements JsonDeserializer<chess.Position> {
+
+        @Override
+        public chess.Position deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
+            var jsonObject = jsonElement.getAsJsonObject();
+            return chess.Position.of(jsonObject.get("row").getAsInt(), jsonObject.get("column").getAsInt());
         }
     }
 
@@ -0,0 +1,11 @@
+package responses;
+
+import chess.ChessMove;
+
+/**
+ * Response object for the Hint method.
+ *
+ * @param move The suggested move for the team whose turn it is, or null if that team has no valid moves.
+ */
+public record HintResponse(ChessMove move) {
+}
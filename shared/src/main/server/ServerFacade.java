@@ -8,6 +8,7 @@ import requests.CreateGameRequest;
 import requests.LoginRequest;
 import requests.RegisterRequest;
 import responses.CreateGameResponse;
+import responses.HintResponse;
 import responses.ListGamesResponse;
 import responses.LoginResponse;
 
@@ -117,6 +118,11 @@ public class ServerFacade {
         makeRequest("PUT", path, authToken, request, null);
     }
 
+    public HintResponse hint(int gameID, String authToken) throws ResponseException {
+        var path = "/game/" + gameID + "/hint";
+        return makeRequest("GET", path, authToken, null, HintResponse.class);
+    }
+
     public void clear() throws ResponseException {
         var path = "/db";
         makeRequest("DELETE", path, null, null);
@@ -26,6 +26,16 @@ public interface ChessGame {
         BLACK
     }
 
+    /**
+     * Enum identifying the state of the game for the team whose turn it is
+     */
+    enum GameStatus{
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      * @param startPosition the piece to get valid moves for
@@ -64,6 +74,25 @@ public interface ChessGame {
      */
     boolean isInStalemate(TeamColor teamColor);
 
+    /**
+     * Gets a 64-bit Zobrist key of the current position, covering the pieces, the team whose turn it is,
+     * castling rights and the en passant file. Equal positions always have equal keys.
+     * @return the Zobrist key
+     */
+    long getZobristKey();
+
+    /**
+     * Gets the status of the game for the team whose turn it is, computed once per position
+     * @return whether that team is in check, checkmate, stalemate or none of them
+     */
+    GameStatus getStatus();
+
+    /**
+     * Gets the position in Forsyth-Edwards Notation, the same text {@link Fen#parse(String)} reads back
+     * @return the FEN string, with castling rights, en passant square and move counters
+     */
+    String toFen();
+
     /**
      * Sets this game's chessboard with a given board
      * @param board the new board to use
@@ -1,7 +1,6 @@
 package dataAccess;
 
 import chess.ChessGame;
-import com.google.gson.*;
 import models.Game;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -21,6 +20,7 @@ public class GameDao {
     private static final String FIND_ALL = "SELECT * FROM game";
     private static final String CLEAR = "DELETE FROM game";
     private static final String UPDATE = "UPDATE game SET whiteUsername = ?, blackUsername = ? WHERE gameID = ?";
+    private static final String UPDATE_GAME = "UPDATE game SET game = ? WHERE gameID = ?";
     private final Database db = new Database();
 
     /**
@@ -80,8 +80,8 @@ public class GameDao {
             preparedStatement.setString(2, game.getWhiteUsername());
             preparedStatement.setString(3, game.getBlackUsername());
             preparedStatement.setString(4, game.getGameName());
-            var gameJson = new Gson().toJson(game.getGame());
-            preparedStatement.setString(5, gameJson);
+            var gameFen = game.getGame().toFen();
+            preparedStatement.setString(5, gameFen);
             preparedStatement.execute();
         } catch (SQLException ex) {
             throw new DataAccessException(ex.toString());
@@ -147,6 +147,28 @@ public class GameDao {
         }
     }
 
+    /**
+     * Saves the current position of a game, so it is loaded again after moves have been made
+     *
+     * @param gameID the id of the game to be updated
+     * @param game   the {@link ChessGame} holding the position, stored as FEN
+     * @throws DataAccessException if there is an error accessing the database or the game does not exist
+     */
+    public void updateGame(int gameID, ChessGame game) throws DataAccessException {
+        var conn = db.getConnection();
+        try (var preparedStatement = conn.prepareStatement(UPDATE_GAME)) {
+            preparedStatement.setString(1, game.toFen());
+            preparedStatement.setInt(2, gameID);
+            if (preparedStatement.executeUpdate() == 0) {
+                throw new DataAccessException("game not found");
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(ex.toString());
+        } finally {
+            db.returnConnection(conn);
+        }
+    }
+
     /**
      * Finds a game in the database
      *
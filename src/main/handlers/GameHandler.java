@@ -2,10 +2,12 @@ package handlers;
 
 import com.google.gson.Gson;
 import dataAccess.DataAccessException;
+import models.ModelSerializer;
 import services.GameService;
 import requests.CreateGameRequest;
 import requests.JoinGameRequest;
 import responses.CreateGameResponse;
+import responses.HintResponse;
 import responses.ListGamesResponse;
 import spark.Response;
 
@@ -62,6 +64,30 @@ public class GameHandler {
         response.body(new Gson().toJson(createGameResponse));
     }
 
+    /**
+     * Suggests a move for the team whose turn it is in the given game
+     *
+     * @param gameID   the id of the game from the request path
+     * @param response will be modified to contain the suggested move
+     * @throws DataAccessException when the game id is invalid or the game does not exist
+     */
+    public void hint(String gameID, Response response) throws DataAccessException {
+        int id;
+        try {
+            id = Integer.parseInt(gameID);
+        } catch (NumberFormatException e) {
+            response.status(400);
+            throw new DataAccessException("bad request");
+        }
+        try {
+            HintResponse hintResponse = gameService.hint(id);
+            response.body(new Gson().toJson(hintResponse));
+        } catch (DataAccessException e) {
+            response.status(404);
+            throw e;
+        }
+    }
+
     /**
      * Lists all games that are currently in progress.
      *
@@ -70,6 +96,16 @@ public class GameHandler {
      */
     public void listGames(Response response) throws DataAccessException {
         ListGamesResponse listGamesResponse = gameService.listGames();
-        response.body(new Gson().toJson(listGamesResponse));
+        response.body(ModelSerializer.serialize(listGamesResponse));
+    }
+
+    /**
+     * Exports all games as PGN.
+     *
+     * @param response will be modified to contain the games in PGN
+     * @throws DataAccessException if there is an error accessing the database.
+     */
+    public void exportGames(Response response) throws DataAccessException {
+        response.body(gameService.exportPgn());
     }
 }
@@ -97,6 +97,8 @@ public class Server {
         get("/game", this::listGames);
         post("/game", this::createGame);
         put("/game", this::joinGame);
+        get("/game/pgn", this::exportGames);
+        get("/game/:gameID/hint", this::hint);
         delete("/db", this::clear);
 
         // error handling
@@ -168,6 +170,36 @@ public class Server {
         return response.body();
     }
 
+    /**
+     * Suggests a move in a game after the user is authorized.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @return the response body.
+     */
+    private Object hint(Request request, Response response) throws DataAccessException {
+        var authToken = getHeader(request);
+        response.type("application/json");
+        sessionHandler.authorizeUser(authToken, response);
+        gameHandler.hint(request.params(":gameID"), response);
+        return response.body();
+    }
+
+    /**
+     * Exports all games as PGN after the user is authorized.
+     *
+     * @param request  the request object.
+     * @param response the response object.
+     * @return the response body.
+     */
+    private Object exportGames(Request request, Response response) throws DataAccessException {
+        var authToken = getHeader(request);
+        response.type("application/x-chess-pgn");
+        sessionHandler.authorizeUser(authToken, response);
+        gameHandler.exportGames(response);
+        return response.body();
+    }
+
     /**
      * Lists all games after the user is authorized.
      *
@@ -49,7 +49,7 @@ public class WebSocketHandler {
     /**
      * Makes a move in the game.
      * A notification is sent to all players in the game, excluding the player who made the move.
-     * Game boards are updated across connections.
+     * Game boards are updated across connections, and the position is saved so hints and later joins see it.
      */
     private void move(Connection conn, String message) throws InvalidMoveException, IOException, DataAccessException {
         var moveCommand = ModelSerializer.deserialize(message, MoveCommand.class);
@@ -60,6 +60,7 @@ public class WebSocketHandler {
         var actualPlayer = assertCorrectPlayer(conn, gameID, game, authToken);
         assertGameIsNotOver(game);
         var notification = game.makeMove(move, actualPlayer);
+        gameService.saveGame(game);
         sendGame(game); // send the updated game to all players
         conn.game = game;
         connections.broadcast(authToken, notification);
@@ -87,7 +88,7 @@ public class WebSocketHandler {
      * Sends the game to all players in the game.
      */
     private void sendGame(models.Game game) throws IOException {
-        var message = new Gson().toJson(game);
+        var message = ModelSerializer.serialize(game);
         var notification = new LoadGameMessage(message);
         connections.broadcast(null, notification);
     }
@@ -185,7 +186,7 @@ public class WebSocketHandler {
      * Sends the game to the player with the specified authToken.
      */
     private void sendGame(models.Game game, String authToken) throws IOException {
-        var message = new Gson().toJson(game);
+        var message = ModelSerializer.serialize(game);
         var notification = new LoadGameMessage(message);
         connections.send(authToken, notification);
     }
@@ -1,5 +1,16 @@
 package services;
 
+import chess.Pgn;
+import chess.engine.Engine;
+import chess.engine.Evaluator;
+import chess.engine.Network;
+import chess.engine.NnueEvaluator;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.PolyglotBook;
+import chess.engine.PolyglotKey;
+import chess.engine.SearchLimits;
+import chess.engine.Tablebase;
+import chess.engine.TranspositionTable;
 import dataAccess.AuthTokenDao;
 import dataAccess.DataAccessException;
 import dataAccess.GameDao;
@@ -8,9 +19,15 @@ import models.Game;
 import requests.CreateGameRequest;
 import requests.JoinGameRequest;
 import responses.CreateGameResponse;
+import responses.HintResponse;
 import responses.ListGamesResponse;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * The Game Service class handles all requests to the /game endpoint of the API.
@@ -31,6 +48,34 @@ public class GameService {
      */
     private static final AuthTokenDao authTokenDao;
 
+    /**
+     * How long the engine may think about a hint that is not in the opening book
+     */
+    private static final long HINT_MILLIS = 250;
+
+    /**
+     * How the hint engines score positions. The network in the {@code chess.network} system property is used
+     * when it is set, otherwise piece-square tables.
+     */
+    private static final Evaluator evaluator;
+
+    /**
+     * The transposition table every hint search shares, so a hint learns from the searches before it
+     */
+    private static final TranspositionTable table = new TranspositionTable(Engine.DEFAULT_HASH_MB);
+
+    /**
+     * The opening book read from the paths in the {@code chess.book} and {@code chess.book.random64} system
+     * properties when both are set, otherwise null
+     */
+    private static final PolyglotBook book;
+
+    /**
+     * The endgame tables the hint engines and the game over checks use. They are built or read from their cache
+     * directory here, as the server starts, rather than by the first request that reaches an ending.
+     */
+    private static final Tablebase tablebase = Tablebase.shared();
+
     static {
         try {
             authTokenDao = new AuthTokenDao();
@@ -38,6 +83,20 @@ public class GameService {
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
+        var network = System.getProperty("chess.network");
+        try {
+            evaluator = network == null ? new PieceSquareEvaluator() : new NnueEvaluator(Network.load(Path.of(network)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        var bookPath = System.getProperty("chess.book");
+        var random64 = System.getProperty("chess.book.random64");
+        try {
+            book = bookPath == null || random64 == null ? null
+                    : PolyglotBook.open(Path.of(bookPath), PolyglotKey.load(Path.of(random64)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
@@ -83,6 +142,73 @@ public class GameService {
         return new ListGamesResponse(gameList);
     }
 
+    /**
+     * Suggests a move for the team whose turn it is, from the opening book if the position is in it
+     *
+     * @param gameID the id of the game to give a hint for
+     * @return a {@link HintResponse} containing the suggested move
+     * @throws DataAccessException if there is an error accessing the database or the game does not exist
+     */
+    public HintResponse hint(int gameID) throws DataAccessException {
+        var game = gameDao.find(gameID);
+        if (game == null) {
+            throw new DataAccessException("game not found");
+        }
+        var result = newEngine().search((chess.Game) game.getGame(), SearchLimits.time(HINT_MILLIS));
+        return new HintResponse(result.bestMove());
+    }
+
+    /**
+     * Exports every game in the database as PGN. The database keeps the position a game has reached, saved by
+     * {@link #saveGame(Game)} after each move, but not the moves that led to it. Each game is written as that
+     * position in the SetUp and FEN tags with no moves, a game still at the start has neither tag.
+     *
+     * @return the games in PGN, one after another
+     * @throws DataAccessException if there is an error accessing the database
+     */
+    public String exportPgn() throws DataAccessException {
+        var pgn = new StringBuilder();
+        for (var game : gameDao.findAll()) {
+            var tags = new LinkedHashMap<String, String>();
+            tags.put("Event", game.getGameName());
+            tags.put("Site", "?");
+            tags.put("Date", "????.??.??");
+            tags.put("Round", "-");
+            tags.put("White", game.getWhiteUsername() == null ? "?" : game.getWhiteUsername());
+            tags.put("Black", game.getBlackUsername() == null ? "?" : game.getBlackUsername());
+            tags.put("GameId", String.valueOf(game.getGameID()));
+            try {
+                Pgn.of(tags, (chess.Game) game.getGame(), List.of(), Pgn.result(game.getGame())).write(pgn);
+            } catch (IOException e) {
+                // a StringBuilder does not throw
+                throw new UncheckedIOException(e);
+            }
+        }
+        return pgn.toString();
+    }
+
+    /**
+     * An engine for one hint. Its search state is its own, so hints are searched at the same time rather than
+     * waiting for each other, while the evaluator, table, book and tablebase are shared. Endings of up to three
+     * pieces, and of four when their tables are cached, are answered from the tablebase.
+     */
+    private static Engine newEngine() {
+        var engine = new Engine(evaluator, table);
+        engine.setBook(book);
+        engine.setTablebase(tablebase);
+        return engine;
+    }
+
+    /**
+     * Saves the current position of a game after a move has been made
+     *
+     * @param game the {@link Game} whose position is saved
+     * @throws DataAccessException if there is an error accessing the database or the game does not exist
+     */
+    public void saveGame(Game game) throws DataAccessException {
+        gameDao.updateGame(game.getGameID(), game.getGame());
+    }
+
     /**
      * Loads a game from the database
      *
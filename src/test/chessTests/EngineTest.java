@@ -0,0 +1,124 @@
+package chessTests;
+
+import chess.Fen;
+import chess.Move;
+import chess.Perft;
+import chess.Position;
+import chess.engine.Engine;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EngineTest {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    void mateInOne() {
+        var game = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        var result = new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(new Move(Position.of(5, 8), Position.of(7, 6)), result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Material")
+    void capturesQueen() {
+        var game = Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        var result = new Engine().search(game, SearchLimits.depth(2));
+        Assertions.assertEquals(new Move(Position.of(2, 4), Position.of(5, 4)), result.bestMove());
+        Assertions.assertEquals(result.bestMove(), result.pv().get(0));
+    }
+
+    @Test
+    @DisplayName("Search Stays Inside Its Limits")
+    void limits() {
+        var engine = new Engine();
+        var depth = engine.search(Fen.parse(Fen.START), SearchLimits.depth(3));
+        Assertions.assertEquals(3, depth.depth());
+
+        var nodes = engine.search(Fen.parse(Fen.START), SearchLimits.nodes(5_000));
+        Assertions.assertTrue(nodes.nodes() <= 5_000);
+        Assertions.assertNotNull(nodes.bestMove());
+
+        var start = System.currentTimeMillis();
+        engine.search(Fen.parse(Fen.START), SearchLimits.time(200));
+        Assertions.assertTrue(System.currentTimeMillis() - start < 1_000);
+    }
+
+    @Test
+    @DisplayName("Search Leaves The Game Unchanged")
+    void unchanged() {
+        var game = Fen.parse(Fen.START);
+        var key = game.getZobristKey();
+        new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(key, game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("A Stop Before The Search Starts Ends It")
+    void stopFirst() {
+        var engine = new Engine();
+        var token = engine.newStopToken();
+        engine.stop();
+        var stopped = engine.search(Fen.parse(Fen.START), SearchLimits.depth(SearchLimits.MAX_DEPTH), token);
+        Assertions.assertNotNull(stopped.bestMove());
+        Assertions.assertTrue(stopped.depth() < SearchLimits.MAX_DEPTH);
+        // the next search has a token of its own
+        Assertions.assertEquals(3, engine.search(Fen.parse(Fen.START), SearchLimits.depth(3)).depth());
+    }
+
+    @Test
+    @DisplayName("Single Thread Is Deterministic")
+    void deterministic() {
+        var game = Fen.parse(Perft.SUITE.get(1).fen());
+        var first = new Engine().search(game, SearchLimits.depth(3));
+        var second = new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(first.nodes(), second.nodes());
+        Assertions.assertEquals(first.pv(), second.pv());
+        Assertions.assertEquals(first.score(), second.score());
+    }
+
+    @Test
+    @DisplayName("Parallel Search")
+    void parallel() {
+        var engine = new Engine();
+        engine.setThreads(4);
+        var game = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        var result = engine.search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(new Move(Position.of(5, 8), Position.of(7, 6)), result.bestMove());
+        Assertions.assertEquals(1, result.mateIn());
+
+        var hanging = engine.search(Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"), SearchLimits.depth(4));
+        Assertions.assertEquals(new Move(Position.of(2, 4), Position.of(5, 4)), hanging.bestMove());
+        Assertions.assertEquals(4, hanging.depth());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> engine.setThreads(0));
+    }
+
+    @Test
+    @DisplayName("Engines Sharing A Table Search At Once")
+    void sharedTable() throws InterruptedException {
+        var table = new TranspositionTable(Engine.DEFAULT_HASH_MB);
+        var mate = new SearchResult[1];
+        var other = new Thread(() -> mate[0] = new Engine(new PieceSquareEvaluator(), table).search(
+                Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4"), SearchLimits.depth(4)));
+        other.start();
+        var hanging = new Engine(new PieceSquareEvaluator(), table).search(
+                Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"), SearchLimits.depth(4));
+        other.join();
+        Assertions.assertEquals(new Move(Position.of(2, 4), Position.of(5, 4)), hanging.bestMove());
+        Assertions.assertEquals(new Move(Position.of(5, 8), Position.of(7, 6)), mate[0].bestMove());
+    }
+
+    @Test
+    @DisplayName("No Move When Stalemated")
+    void stalemate() {
+        var result = new Engine().search(Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"), SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(0, result.score());
+    }
+}
@@ -0,0 +1,135 @@
+package chessTests;
+
+import chess.BitBoard;
+import chess.Fen;
+import chess.MoveList;
+import chess.Perft;
+import chess.engine.Network;
+import chess.engine.NnueEvaluator;
+import chess.engine.PieceSquareEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+class EvaluatorTest {
+
+    @Test
+    @DisplayName("Starting Position Is Even")
+    void start() {
+        Assertions.assertEquals(0, new PieceSquareEvaluator().evaluate(Fen.parse(Fen.START)));
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Scores The Same For The Other Side")
+    void symmetry() {
+        var evaluator = new PieceSquareEvaluator();
+        var white = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var black = Fen.parse("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1");
+        Assertions.assertEquals(evaluator.evaluate(white), evaluator.evaluate(black));
+    }
+
+    @Test
+    @DisplayName("Endgame Tables Take Over As Pieces Come Off")
+    void tapered() {
+        var evaluator = new PieceSquareEvaluator();
+        // a king in the center is punished with queens on the board and rewarded without them
+        var middlegame = evaluator.evaluate(Fen.parse("rnbqkbnr/pppppppp/8/8/3K4/8/PPPPPPPP/RNBQ1BNR w kq - 0 1"));
+        var endgame = evaluator.evaluate(Fen.parse("4k3/pppppppp/8/8/3K4/8/PPPPPPPP/8 w - - 0 1"));
+        Assertions.assertTrue(middlegame < 0);
+        Assertions.assertTrue(endgame > 0);
+    }
+
+    @Test
+    @DisplayName("Incremental Scores Match A Fresh Board")
+    void incremental() {
+        for (var entry : Perft.SUITE) {
+            var game = Fen.parse(entry.fen());
+            var first = new MoveList();
+            var second = new MoveList();
+            game.legalMoves(first);
+            for (int i = 0; i < first.size(); i++) {
+                game.doMove(first.get(i));
+                game.legalMoves(second);
+                for (int j = 0; j < second.size(); j++) {
+                    game.doMove(second.get(j));
+                    assertMatchesFreshBoard(BitBoard.of(game.getBoard()));
+                    game.undoMove();
+                }
+                game.undoMove();
+            }
+            assertMatchesFreshBoard(BitBoard.of(game.getBoard()));
+        }
+    }
+
+    @Test
+    @DisplayName("Network Accumulators Match A Fresh Board")
+    void network() {
+        var evaluator = new NnueEvaluator(Network.random(64, 7));
+        for (var entry : Perft.SUITE) {
+            var game = Fen.parse(entry.fen());
+            // the first evaluation attaches the accumulator, every move after that updates it
+            evaluator.evaluate(game);
+            var first = new MoveList();
+            var second = new MoveList();
+            game.legalMoves(first);
+            for (int i = 0; i < first.size(); i++) {
+                game.doMove(first.get(i));
+                game.legalMoves(second);
+                for (int j = 0; j < second.size(); j++) {
+                    game.doMove(second.get(j));
+                    Assertions.assertEquals(evaluator.evaluate(game.copy()), evaluator.evaluate(game));
+                    game.undoMove();
+                }
+                game.undoMove();
+            }
+            Assertions.assertEquals(evaluator.evaluate(game.copy()), evaluator.evaluate(game));
+        }
+    }
+
+    @Test
+    @DisplayName("Network Sees The Board From The Team To Move")
+    void networkSymmetry() {
+        var evaluator = new NnueEvaluator(Network.random(64, 7));
+        var white = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var black = Fen.parse("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1");
+        Assertions.assertEquals(evaluator.evaluate(white), evaluator.evaluate(black));
+    }
+
+    @Test
+    @DisplayName("Network Read From A Weights File")
+    void networkFile() throws IOException {
+        // one hidden neuron that counts the queens of the team it sees the board for
+        var hidden = 1;
+        var buffer = ByteBuffer.allocate(2 * ((Network.INPUTS + 3) * hidden + 1) + 30).order(ByteOrder.LITTLE_ENDIAN);
+        for (int input = 0; input < Network.INPUTS; input++) {
+            buffer.putShort((short) (input / 64 == 4 ? 100 : 0));
+        }
+        buffer.putShort((short) 0).putShort((short) 64).putShort((short) -64).putShort((short) 0);
+        var file = Files.createTempFile("network", ".bin");
+        file.toFile().deleteOnExit();
+        Files.write(file, buffer.array());
+
+        var network = Network.load(file);
+        Assertions.assertEquals(1, network.hidden());
+        var evaluator = new NnueEvaluator(network);
+        // 100 * 64 * 400 / (255 * 64)
+        Assertions.assertEquals(156, evaluator.evaluate(Fen.parse("4k3/8/8/8/8/8/8/3QK3 w - - 0 1")));
+        Assertions.assertEquals(-156, evaluator.evaluate(Fen.parse("4k3/8/8/8/8/8/8/3QK3 b - - 0 1")));
+        Assertions.assertEquals(0, evaluator.evaluate(Fen.parse("3qk3/8/8/8/8/8/8/3QK3 w - - 0 1")));
+
+        Files.write(file, new byte[1000]);
+        Assertions.assertThrows(IOException.class, () -> Network.load(file));
+    }
+
+    private static void assertMatchesFreshBoard(BitBoard board) {
+        var fresh = board.copy();
+        Assertions.assertEquals(fresh.midgame(), board.midgame());
+        Assertions.assertEquals(fresh.endgame(), board.endgame());
+        Assertions.assertEquals(fresh.phase(), board.phase());
+    }
+}
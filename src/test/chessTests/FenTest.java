@@ -0,0 +1,68 @@
+package chessTests;
+
+import chess.Fen;
+import chess.Move;
+import chess.Perft;
+import chess.Position;
+import models.ModelSerializer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FenTest {
+
+    @Test
+    @DisplayName("Perft Positions Round Trip")
+    void roundTrip() {
+        for (var entry : Perft.SUITE) {
+            var game = Fen.parse(entry.fen());
+            Assertions.assertEquals(entry.fen(), game.toFen(), entry.name());
+            Assertions.assertEquals(game.getZobristKey(), Fen.parse(game.toFen()).getZobristKey(), entry.name());
+        }
+        Assertions.assertEquals(Fen.START, Fen.parse(Fen.START).toFen());
+    }
+
+    @Test
+    @DisplayName("Move Counters Follow Moves And Undo")
+    void counters() throws Exception {
+        var game = Fen.parse(Fen.START);
+        game.makeMove(new Move(Position.of(1, 7), Position.of(3, 6)));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R b KQkq - 1 1", game.toFen());
+        game.makeMove(new Move(Position.of(7, 5), Position.of(5, 5)));
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/5N2/PPPPPPPP/RNBQKB1R w KQkq e6 0 2", game.toFen());
+        game.makeMove(new Move(Position.of(3, 6), Position.of(5, 5)));
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4N3/8/8/PPPPPPPP/RNBQKB1R b KQkq - 0 2", game.toFen());
+
+        game.undoMove();
+        game.undoMove();
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R b KQkq - 1 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Counters Are Optional And Bad FEN Is Rejected")
+    void optionalFields() {
+        var game = Fen.parse("  r3k2r/8/8/3pP3/8/8/8/R3K2R   w Kq d6 ");
+        Assertions.assertEquals("r3k2r/8/8/3pP3/8/8/8/R3K2R w Kq d6 0 1", game.toFen());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8 w - -"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("9/8/8/8/8/8/8/8 w - -"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/8 x - -"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/8 w - e4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse(Fen.START + " 7"));
+    }
+
+    @Test
+    @DisplayName("Games Serialize As FEN And Legacy JSON Still Reads")
+    void serializer() {
+        var fen = Perft.SUITE.get(1).fen();
+        var game = new models.Game(7, "white", "black", "kiwipete", Fen.parse(fen));
+        var json = ModelSerializer.serialize(game);
+        Assertions.assertTrue(json.contains("\"" + fen + "\""), json);
+
+        var read = ModelSerializer.deserialize(json, models.Game.class);
+        Assertions.assertEquals(fen, read.getGame().toFen());
+
+        var legacy = new com.google.gson.Gson().toJson(game);
+        Assertions.assertEquals(fen, ModelSerializer.deserialize(legacy, models.Game.class).getGame().toFen());
+    }
+}
@@ -0,0 +1,46 @@
+package chessTests;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.Position;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GameStatusTest {
+
+    @Test
+    @DisplayName("Status After Each Move")
+    void foolsMate() throws InvalidMoveException {
+        var game = Fen.parse(Fen.START);
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.makeMove(new Move(Position.of(2, 6), Position.of(3, 6)));
+        game.makeMove(new Move(Position.of(7, 5), Position.of(5, 5)));
+        game.makeMove(new Move(Position.of(2, 7), Position.of(4, 7)));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.makeMove(new Move(Position.of(8, 4), Position.of(4, 8)));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Check And Stalemate")
+    void checkAndStalemate() {
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, Fen.parse("4k3/8/8/8/8/8/8/4K2r w - - 0 1").getStatus());
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1").getStatus());
+    }
+
+    @Test
+    @DisplayName("Status Follows Undo")
+    void undo() {
+        var game = Fen.parse("7k/8/5QK1/8/8/8/8/8 w - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.doMove(new Move(Position.of(6, 6), Position.of(7, 6)));
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus());
+        game.undoMove();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+    }
+}
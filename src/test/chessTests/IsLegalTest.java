@@ -0,0 +1,49 @@
+package chessTests;
+
+import chess.ChessPiece;
+import chess.Fen;
+import chess.Game;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IsLegalTest {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.KING};
+
+    @Test
+    @DisplayName("isLegal Agrees With Move Generation")
+    void agreesWithGeneration() {
+        for (var entry : Perft.SUITE) {
+            var game = Fen.parse(entry.fen());
+            var moves = new MoveList();
+            game.legalMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                game.doMove(moves.get(i));
+                compare(game, entry.name());
+                game.undoMove();
+            }
+            compare(game, entry.name());
+        }
+    }
+
+    /**
+     * Tests every start square, end square and a few promotion pieces against the generated moves
+     */
+    private static void compare(Game game, String name) {
+        var moves = new MoveList();
+        game.legalMoves(moves);
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (var promotion : PROMOTIONS) {
+                    var move = PackedMove.of(from, to, promotion, 0);
+                    Assertions.assertEquals(moves.contains(move), game.isLegal(PackedMove.toMove(move)),
+                            name + ": " + PackedMove.toMove(move));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package chessTests;
+
+import chess.ChessMove;
+import chess.Fen;
+import chess.Move;
+import chess.MoveCache;
+import chess.Position;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+class MoveCacheTest {
+
+    @Test
+    @DisplayName("Hits And Misses")
+    void counters() {
+        var cache = new MoveCache(4);
+        cache.get(1L, 12, List::of);
+        cache.get(1L, 12, () -> {
+            throw new AssertionError("should have been cached");
+        });
+        cache.get(1L, 13, List::of);
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(2, cache.misses());
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Recently Used Entries Survive Eviction")
+    void eviction() {
+        var cache = new MoveCache(2);
+        cache.get(1L, 0, List::of);
+        cache.get(2L, 0, List::of);
+        cache.get(1L, 0, List::of);
+        cache.get(3L, 0, List::of);
+        Assertions.assertEquals(2, cache.size());
+        var misses = cache.misses();
+        cache.get(1L, 0, List::of);
+        Assertions.assertEquals(misses, cache.misses());
+        cache.get(2L, 0, List::of);
+        Assertions.assertEquals(misses + 1, cache.misses());
+    }
+
+    @Test
+    @DisplayName("Copies Of A Game Share Entries")
+    void sharedAcrossGames() {
+        var start = Position.of(2, 5);
+        var first = Fen.parse(Fen.START).validMoves(start);
+        var second = Fen.parse(Fen.START).validMoves(start);
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(2, second.size());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> second.add((ChessMove) null));
+    }
+
+    @Test
+    @DisplayName("Concurrent Lookups Stay Bounded And Consistent")
+    void concurrent() throws InterruptedException {
+        var cache = new MoveCache(64);
+        var start = Position.of(1, 1);
+        var failure = new AtomicReference<Throwable>();
+        var threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            var seed = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 20_000; i++) {
+                        long key = (i * 31L + seed) % 200;
+                        var moves = cache.get(key, 0, () -> List.of(new Move(start, Position.of(1, 1 + (int) (key % 7)))));
+                        Assertions.assertEquals(1 + (int) (key % 7), moves.get(0).getEndPosition().getColumn());
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        Assertions.assertNull(failure.get());
+        Assertions.assertEquals(4 * 20_000, cache.hits() + cache.misses());
+        Assertions.assertTrue(cache.size() <= cache.capacity(), cache.toString());
+    }
+}
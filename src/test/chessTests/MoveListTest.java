@@ -0,0 +1,49 @@
+package chessTests;
+
+import chess.ChessPiece;
+import chess.Fen;
+import chess.Move;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Position;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MoveListTest {
+
+    @Test
+    @DisplayName("Packed Move Round Trip")
+    void roundTrip() {
+        var move = new Move(new Position(7, 2), new Position(8, 1), ChessPiece.PieceType.KNIGHT);
+        var packed = PackedMove.of(move);
+        Assertions.assertEquals(49, PackedMove.from(packed));
+        Assertions.assertEquals(56, PackedMove.to(packed));
+        Assertions.assertEquals(ChessPiece.PieceType.KNIGHT, PackedMove.promotion(packed));
+        Assertions.assertEquals(move, PackedMove.toMove(packed));
+    }
+
+    @Test
+    @DisplayName("Promotion Pieces Make Different Moves")
+    void promotionEquality() {
+        var queen = new Move(new Position(7, 1), new Position(8, 1), ChessPiece.PieceType.QUEEN);
+        var rook = new Move(new Position(7, 1), new Position(8, 1), ChessPiece.PieceType.ROOK);
+        Assertions.assertNotEquals(queen, rook);
+        Assertions.assertEquals(queen, new Move(new Position(7, 1), new Position(8, 1), ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(queen.hashCode(), new Move(new Position(7, 1), new Position(8, 1), ChessPiece.PieceType.QUEEN).hashCode());
+    }
+
+    @Test
+    @DisplayName("Reused List Is Refilled")
+    void reuse() {
+        var list = new MoveList(1);
+        var game = Fen.parse(Fen.START);
+        game.legalMoves(list);
+        Assertions.assertEquals(20, list.size());
+        game.legalMoves(list);
+        Assertions.assertEquals(20, list.size());
+        Assertions.assertTrue(list.contains(PackedMove.of(12, 28)));
+        Assertions.assertTrue(PackedMove.isCapture(PackedMove.of(12, 28, null, PackedMove.CAPTURE)));
+        Assertions.assertEquals(20, list.asChessMoves().size());
+    }
+}
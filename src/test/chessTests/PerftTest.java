@@ -0,0 +1,46 @@
+package chessTests;
+
+import chess.Fen;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+    /**
+     * Keeps the suite quick enough to run with every build, the CLI runs the deeper counts
+     */
+    private static final long MAX_NODES = 200_000;
+
+    @Test
+    @DisplayName("Perft Suite Node Counts")
+    void suite() {
+        for (var entry : Perft.SUITE) {
+            for (int depth = 1; depth <= entry.nodes().length && entry.nodes()[depth - 1] <= MAX_NODES; depth++) {
+                Assertions.assertEquals(entry.nodes()[depth - 1], Perft.perft(Fen.parse(entry.fen()), depth),
+                        entry.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Adds Up To Perft")
+    void divide() {
+        var game = Fen.parse(Perft.SUITE.get(1).fen());
+        var divide = Perft.divide(game, 2);
+        Assertions.assertEquals(48, divide.size());
+        Assertions.assertEquals(2_039, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Perft Leaves The Game Unchanged")
+    void unchanged() {
+        var game = Fen.parse(Perft.SUITE.get(1).fen());
+        var key = game.getZobristKey();
+        var board = game.getBoard().toString();
+        Perft.perft(game, 3);
+        Assertions.assertEquals(key, game.getZobristKey());
+        Assertions.assertEquals(board, game.getBoard().toString());
+    }
+}
@@ -0,0 +1,146 @@
+package chessTests;
+
+import chess.Fen;
+import chess.Game;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Pgn;
+import chess.PgnReader;
+import chess.PgnValidator;
+import chess.San;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+class PgnTest {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [Round "?"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3 5. Qxf3 dxe5
+            6. Bc4 Nf6 7. Qb3 Qe7 8. Nc3 (8. Qxb7 Qb4+ 9. Qxb4 Bxb4+) c6 9. Bg5 $1 b5 10. Nxb5 cxb5
+            11. Bxb5+ Nbd7 12. O-O-O Rd8 13. Rxd7 Rxd7 14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8
+            17. Rd8# 1-0
+
+            """;
+
+    @Test
+    @DisplayName("Read And Replay A Game With Comments And Variations")
+    void replay() throws IOException {
+        var pgn = new PgnReader(new StringReader(OPERA_GAME)).next();
+        Assertions.assertEquals("Paul Morphy", pgn.tags().get("White"));
+        Assertions.assertEquals("1-0", pgn.result());
+        Assertions.assertEquals(33, pgn.moves().size());
+        Assertions.assertEquals("O-O-O", pgn.moves().get(22));
+
+        var game = pgn.replay();
+        Assertions.assertEquals(Game.GameStatus.CHECKMATE, game.getStatus());
+        Assertions.assertEquals("1-0", Pgn.result(game));
+    }
+
+    @Test
+    @DisplayName("Write And Read Back")
+    void roundTrip() throws IOException {
+        var pgn = new PgnReader(new StringReader(OPERA_GAME)).next();
+        var out = new StringWriter();
+        pgn.write(out);
+        var text = out.toString();
+        Assertions.assertTrue(text.startsWith("[Event \"Paris\"]\n[Site \"Paris FRA\"]\n"), text);
+        Assertions.assertTrue(text.lines().allMatch(line -> line.length() <= 79), text);
+        Assertions.assertTrue(text.contains("12. O-O-O Rd8"), text);
+
+        var read = new PgnReader(new StringReader(text)).next();
+        Assertions.assertEquals(pgn.tags(), read.tags());
+        Assertions.assertEquals(pgn.moves(), read.moves());
+
+        // moves played on a game write the same SAN the game was read from
+        var start = new Game();
+        var game = start.copy();
+        var list = new MoveList();
+        var moves = new ArrayList<chess.ChessMove>();
+        for (var san : pgn.moves()) {
+            var move = San.parse(game, san, list);
+            moves.add(PackedMove.toMove(move));
+            game.doMove(move);
+        }
+        Assertions.assertEquals(pgn.moves(), Pgn.of(Map.of(), start, moves, "1-0").moves());
+    }
+
+    @Test
+    @DisplayName("SAN Disambiguation, Promotion And En Passant")
+    void san() {
+        var list = new MoveList();
+        var knights = Fen.parse("4k3/8/8/8/8/2N3N1/8/2N1K3 w - - 0 1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(knights, "Ne2", list));
+        var move = San.parse(knights, "Nc3e2", list);
+        Assertions.assertEquals("Nc3e2", San.write(knights, move, list));
+        Assertions.assertEquals("Nge2", San.write(knights, San.parse(knights, "Nge2", list), list));
+
+        var promotion = Fen.parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals("b8=Q+", San.write(promotion, San.parse(promotion, "b8Q", list), list));
+
+        var enPassant = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        Assertions.assertEquals("exd6", San.write(enPassant, San.parse(enPassant, "exd6", list), list));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.parse(enPassant, "O-O", list));
+    }
+
+    @Test
+    @DisplayName("Position Games And Games Without Results")
+    void setUp() throws IOException {
+        var start = Fen.parse("4k3/8/8/8/8/8/8/R3K3 b - - 3 40");
+        var pgn = Pgn.of(Map.of("Event", "ending"), start, List.of(), "*");
+        Assertions.assertEquals("1", pgn.tags().get("SetUp"));
+        Assertions.assertEquals(start.toFen(), pgn.start().toFen());
+
+        var text = """
+                [FEN "4k3/8/8/8/8/8/8/R3K3 b - - 3 40"]
+                40... Kd7 41. Ra7+
+                [Event "next"]
+                1. e4
+                """;
+        var reader = new PgnReader(new StringReader(text));
+        var first = reader.next();
+        Assertions.assertEquals(List.of("Kd7", "Ra7+"), first.moves());
+        Assertions.assertEquals("*", first.result());
+        Assertions.assertEquals("8/R2k4/8/8/8/8/8/4K3 b - - 5 41", first.replay().toFen());
+        Assertions.assertEquals("next", reader.next().tags().get("Event"));
+        Assertions.assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Bulk Validation Reports Failing Games")
+    void validate() throws IOException {
+        var bad = """
+                [Event "bad"]
+                1. e4 e5 2. Ke3 *
+
+                """;
+        var text = OPERA_GAME.repeat(50) + bad + OPERA_GAME.repeat(50);
+        var failures = new ArrayList<PgnValidator.Failure>();
+        var pool = new ForkJoinPool(2);
+        try {
+            var summary = PgnValidator.validate(new StringReader(text), pool, failures::add);
+            Assertions.assertEquals(101, summary.games());
+            Assertions.assertEquals(100 * 33, summary.plies());
+            Assertions.assertEquals(1, summary.errors());
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertEquals(51, failures.get(0).game());
+        Assertions.assertTrue(failures.get(0).message().startsWith("Ply 3, 2. Ke3"), failures.get(0).message());
+    }
+}
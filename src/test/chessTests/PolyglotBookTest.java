@@ -0,0 +1,131 @@
+package chessTests;
+
+import chess.Fen;
+import chess.Move;
+import chess.Position;
+import chess.engine.Engine;
+import chess.engine.PolyglotBook;
+import chess.engine.PolyglotKey;
+import chess.engine.SearchLimits;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+class PolyglotBookTest {
+
+    /**
+     * Stand-in random numbers, a real book needs the ones from the Polyglot specification
+     */
+    private static final long[] RANDOM64 = new SplittableRandom(781).longs(PolyglotKey.SIZE).toArray();
+
+    private static final PolyglotKey KEYS = new PolyglotKey(RANDOM64);
+
+    @Test
+    @DisplayName("Book Moves By Weight")
+    void lookup() throws IOException {
+        var start = Fen.parse(Fen.START);
+        var key = KEYS.key(start);
+        var book = PolyglotBook.open(writeBook(
+                entry(key, move(2, 5, 4, 5, 0), 10),
+                entry(key, move(2, 4, 4, 4, 0), 20),
+                // a rook cannot move through its own pawn
+                entry(key, move(1, 1, 5, 1, 0), 50),
+                entry(key - 1, move(2, 3, 4, 3, 0), 1),
+                entry(key + 1, move(2, 6, 4, 6, 0), 1)), KEYS);
+
+        Assertions.assertEquals(5, book.size());
+        var moves = book.moves(start);
+        Assertions.assertEquals(2, moves.size());
+        Assertions.assertEquals(new Move(Position.of(2, 4), Position.of(4, 4)), moves.get(0).move());
+        Assertions.assertEquals(20, moves.get(0).weight());
+        Assertions.assertEquals(new Move(Position.of(2, 5), Position.of(4, 5)), moves.get(1).move());
+        Assertions.assertEquals(moves.get(0).move(), book.bestMove(start));
+
+        Assertions.assertNull(book.bestMove(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Castling Is Stored As King Takes Rook")
+    void castling() throws IOException {
+        var game = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        var book = PolyglotBook.open(writeBook(entry(KEYS.key(game), move(1, 5, 1, 8, 0), 1)), KEYS);
+        Assertions.assertEquals(new Move(Position.of(1, 5), Position.of(1, 7)), book.bestMove(game));
+    }
+
+    @Test
+    @DisplayName("Keys Depend On Castling, Turn And Capturable En Passant")
+    void keys() {
+        var start = KEYS.key(Fen.parse(Fen.START));
+        Assertions.assertNotEquals(start, KEYS.key(Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR b KQkq - 0 1")));
+        Assertions.assertNotEquals(start, KEYS.key(Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w Kkq - 0 1")));
+
+        // no black pawn stands next to e4, so the en passant square is not part of the key
+        Assertions.assertEquals(KEYS.key(Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")),
+                KEYS.key(Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+        Assertions.assertNotEquals(KEYS.key(Fen.parse("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")),
+                KEYS.key(Fen.parse("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")));
+    }
+
+    @Test
+    @DisplayName("Random Numbers Read From A C Array")
+    void load() throws IOException {
+        var text = new StringBuilder("/* Random64 */\nconst uint64 Random64[781] = {\n");
+        for (var number : RANDOM64) {
+            text.append(String.format("    0x%016XULL,%n", number));
+        }
+        text.append("};\n");
+        var file = Files.createTempFile("random64", ".c");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text);
+        var start = Fen.parse(Fen.START);
+        Assertions.assertEquals(KEYS.key(start), PolyglotKey.load(file).key(start));
+
+        Files.writeString(file, "0x1, 0x2");
+        Assertions.assertThrows(IOException.class, () -> PolyglotKey.load(file));
+    }
+
+    @Test
+    @DisplayName("Engine Plays From The Book")
+    void engine() throws IOException {
+        var start = Fen.parse(Fen.START);
+        var engine = new Engine();
+        engine.setBook(PolyglotBook.open(writeBook(entry(KEYS.key(start), move(1, 7, 3, 6, 0), 1)), KEYS));
+        var result = engine.search(start, SearchLimits.depth(5));
+        Assertions.assertEquals(new Move(Position.of(1, 7), Position.of(3, 6)), result.bestMove());
+        Assertions.assertEquals(0, result.nodes());
+
+        var outOfBook = engine.search(Fen.parse("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"), SearchLimits.depth(2));
+        Assertions.assertEquals(new Move(Position.of(2, 4), Position.of(5, 4)), outOfBook.bestMove());
+    }
+
+    private static int move(int fromRow, int fromColumn, int toRow, int toColumn, int promotion) {
+        return (toColumn - 1) | (toRow - 1) << 3 | (fromColumn - 1) << 6 | (fromRow - 1) << 9 | promotion << 12;
+    }
+
+    private static byte[] entry(long key, int move, int weight) {
+        return ByteBuffer.allocate(16).putLong(key).putShort((short) move).putShort((short) weight).putInt(0).array();
+    }
+
+    /**
+     * Writes the entries sorted by unsigned key, the order Polyglot books are stored in
+     */
+    private static Path writeBook(byte[]... entries) throws IOException {
+        Arrays.sort(entries, Comparator.comparing(entry -> ByteBuffer.wrap(entry).getLong(), Long::compareUnsigned));
+        var file = Files.createTempFile("book", ".bin");
+        file.toFile().deleteOnExit();
+        try (var out = Files.newOutputStream(file)) {
+            for (var entry : entries) {
+                out.write(entry);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,164 @@
+package chessTests;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.Position;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.Tablebase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+class TablebaseTest {
+
+    @Test
+    @DisplayName("Mates, Stalemates And Checkmated Positions")
+    void results() {
+        var tablebase = Tablebase.shared();
+        Assertions.assertEquals(new Tablebase.Probe(1, 1, false),
+                tablebase.probe(Fen.parse("6k1/8/6K1/8/8/8/8/R7 w - - 0 1")));
+        Assertions.assertEquals(new Tablebase.Probe(-1, 0, false),
+                tablebase.probe(Fen.parse("R5k1/8/6K1/8/8/8/8/8 b - - 0 1")));
+        Assertions.assertEquals(new Tablebase.Probe(0, 0, false),
+                tablebase.probe(Fen.parse("k7/8/1QK5/8/8/8/8/8 b - - 0 1")));
+        // black can take the queen
+        Assertions.assertEquals(new Tablebase.Probe(0, 0, false),
+                tablebase.probe(Fen.parse("k7/1Q6/8/8/8/8/8/7K b - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Dead Material")
+    void dead() {
+        var tablebase = Tablebase.shared();
+        Assertions.assertTrue(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1")).dead());
+        Assertions.assertTrue(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1")).dead());
+        Assertions.assertTrue(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/1n2K3 w - - 0 1")).dead());
+        Assertions.assertFalse(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/8/R3K3 w - - 0 1")).dead());
+        // a lone pawn cannot mate, but it can promote to a queen that does
+        Assertions.assertFalse(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")).dead());
+    }
+
+    @Test
+    @DisplayName("King And Pawn Against King")
+    void pawn() {
+        var tablebase = Tablebase.shared();
+        Assertions.assertEquals(1, tablebase.probe(Fen.parse("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")).wdl());
+        Assertions.assertEquals(0, tablebase.probe(Fen.parse("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1")).wdl());
+        // a rook pawn is a draw once the defending king reaches the corner
+        Assertions.assertEquals(0, tablebase.probe(Fen.parse("k7/8/8/8/8/8/P7/K7 w - - 0 1")).wdl());
+        // the pawn is about to be taken
+        Assertions.assertEquals(0, tablebase.probe(Fen.parse("8/8/8/8/8/8/k1P5/7K b - - 0 1")).wdl());
+        Assertions.assertNull(tablebase.probe(Fen.parse("4k3/8/8/8/8/8/4P3/4K2R w K - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Colors Swapped Give The Same Result")
+    void mirrored() {
+        var tablebase = Tablebase.shared();
+        Assertions.assertEquals(tablebase.probe(Fen.parse("8/8/3k4/8/8/5K2/1R6/8 w - - 0 1")),
+                tablebase.probe(Fen.parse("8/1r6/5k2/8/8/3K4/8/8 b - - 0 1")));
+        Assertions.assertEquals(tablebase.probe(Fen.parse("8/8/8/2k5/8/8/4P3/4K3 b - - 0 1")),
+                tablebase.probe(Fen.parse("4k3/4p3/8/8/2K5/8/8/8 w - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Best Moves Mate In The Stated Number Of Plies")
+    void playOut() throws InvalidMoveException {
+        var tablebase = Tablebase.shared();
+        for (var fen : new String[]{"8/8/3k4/8/8/5K2/1R6/8 w - - 0 1", "8/8/8/4k3/8/8/8/Q3K3 b - - 0 1",
+                "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"}) {
+            var game = Fen.parse(fen);
+            var probe = tablebase.probe(game);
+            var winner = probe.wdl() == 1 ? game.getTeamTurn() : null;
+            for (int ply = probe.pliesToMate(); ply > 0; ply--) {
+                var current = tablebase.probe(game);
+                Assertions.assertEquals(ply, current.pliesToMate(), fen);
+                game.makeMove(tablebase.bestMove(game));
+            }
+            Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus(), fen);
+            Assertions.assertNotEquals(winner, game.getTeamTurn(), fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Tables Read Back From The Cache Directory")
+    void cache() throws IOException {
+        var directory = Files.createTempDirectory("tablebase");
+        directory.toFile().deleteOnExit();
+        var written = new Tablebase(directory);
+        written.generate("KvKR");
+        Assertions.assertTrue(written.has("KRvK"));
+        Assertions.assertTrue(Files.isRegularFile(directory.resolve("KRvK.tb")));
+        Assertions.assertTrue(Files.isRegularFile(directory.resolve("KvK.tb")));
+        directory.resolve("KRvK.tb").toFile().deleteOnExit();
+        directory.resolve("KvK.tb").toFile().deleteOnExit();
+
+        var read = new Tablebase(directory);
+        Assertions.assertFalse(read.has("KRvK"));
+        read.generate("KRvK");
+        var game = Fen.parse("8/8/3k4/8/8/5K2/1R6/8 w - - 0 1");
+        Assertions.assertEquals(written.probe(game), read.probe(game));
+        Assertions.assertFalse(read.probe(game).dead());
+        // a table read from the cache does not need the smaller tables, so they are only read when asked for
+        var bare = Fen.parse("8/8/3k4/8/8/5K2/8/8 w - - 0 1");
+        Assertions.assertNull(read.probe(bare));
+        read.generate("KvK");
+        Assertions.assertTrue(read.probe(bare).dead());
+    }
+
+    @Test
+    @DisplayName("Four Piece Tables Load From The Cache")
+    void fourPieces() throws IOException {
+        var directory = Files.createTempDirectory("tablebase");
+        directory.toFile().deleteOnExit();
+        new Tablebase(directory).generate("KRvKN");
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> file.toFile().deleteOnExit());
+        }
+
+        var read = new Tablebase(directory);
+        read.loadCache();
+        Assertions.assertTrue(read.has("KRvKN"));
+        Assertions.assertEquals(new Tablebase.Probe(1, 1, false),
+                read.probe(Fen.parse("6k1/8/6K1/8/8/8/8/R6n w - - 0 1")));
+        Assertions.assertEquals(new Tablebase.Probe(1, 1, false),
+                read.probe(Fen.parse("r6N/8/8/8/8/6k1/8/6K1 b - - 0 1")));
+        // the knight takes the rook
+        Assertions.assertEquals(0, read.probe(Fen.parse("8/8/3k4/8/4n3/8/3K1R2/8 b - - 0 1")).wdl());
+    }
+
+    @Test
+    @DisplayName("Engine Plays From The Tables")
+    void engine() {
+        var engine = new Engine();
+        engine.setTablebase(Tablebase.shared());
+        var result = engine.search(Fen.parse("6k1/8/6K1/8/8/8/8/R7 w - - 0 1"), SearchLimits.depth(5));
+        Assertions.assertEquals(new Move(Position.of(1, 1), Position.of(8, 1)), result.bestMove());
+        Assertions.assertEquals(0, result.nodes());
+        Assertions.assertTrue(result.score() > 0);
+
+        // white wins the rook and reaches a table inside the tree
+        var search = engine.search(Fen.parse("8/8/3k4/8/8/5K2/1r6/1R6 w - - 0 1"), SearchLimits.depth(3));
+        Assertions.assertEquals(new Move(Position.of(1, 2), Position.of(2, 2)), search.bestMove());
+    }
+
+    @Test
+    @DisplayName("Game Ends When Only A Minor Piece Is Left")
+    void insufficientMaterial() throws InvalidMoveException {
+        var game = new models.Game(1, "white", "black", "game", Fen.parse("4k3/8/8/8/8/8/3n4/4K3 w - - 0 1"));
+        var notification = game.makeMove(new Move(Position.of(1, 5), Position.of(2, 4)), "white");
+        Assertions.assertTrue(game.isGameOver());
+        Assertions.assertNull(game.getWinner());
+        Assertions.assertTrue(notification.message().contains("insufficient material"));
+
+        var rook = new models.Game(2, "white", "black", "game", Fen.parse("4k3/8/8/8/8/8/3n4/R3K3 w - - 0 1"));
+        rook.makeMove(new Move(Position.of(1, 5), Position.of(2, 4)), "white");
+        Assertions.assertFalse(rook.isGameOver());
+    }
+}
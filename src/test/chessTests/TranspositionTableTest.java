@@ -0,0 +1,109 @@
+package chessTests;
+
+import chess.Fen;
+import chess.PackedMove;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+
+    private static final long KEY = 0x9D39247E33776D41L;
+
+    @Test
+    @DisplayName("Stored Entry Is Found Again")
+    void roundTrip() {
+        var table = new TranspositionTable(1);
+        var move = PackedMove.of(12, 28);
+        table.store(KEY, move, -153, 7, TranspositionTable.LOWER, 3);
+
+        var entry = table.probe(KEY);
+        Assertions.assertNotEquals(0, entry);
+        Assertions.assertEquals(PackedMove.key(move), TranspositionTable.move(entry));
+        Assertions.assertEquals(-153, TranspositionTable.score(entry, 3));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0, table.probe(KEY + 1));
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Relative To The Probing Node")
+    void mateScores() {
+        var table = new TranspositionTable(1);
+        // mate in 5 plies from a node at ply 2
+        table.store(KEY, 0, 32_000 - 7, 4, TranspositionTable.EXACT, 2);
+        Assertions.assertEquals(32_000 - 9, TranspositionTable.score(table.probe(KEY), 4));
+        Assertions.assertEquals(32_000 - 5, TranspositionTable.score(table.probe(KEY), 0));
+    }
+
+    @Test
+    @DisplayName("Deeper Entries Survive Collisions")
+    void replacement() {
+        var table = new TranspositionTable(1);
+        var buckets = table.capacity() / 2;
+        // keys in the same bucket differ only above the index bits
+        long deep = KEY, shallow = KEY + buckets, incoming = KEY + 2L * buckets;
+        table.store(deep, 0, 10, 9, TranspositionTable.EXACT, 0);
+        table.store(shallow, 0, 20, 2, TranspositionTable.EXACT, 0);
+        table.store(incoming, 0, 30, 5, TranspositionTable.EXACT, 0);
+
+        Assertions.assertNotEquals(0, table.probe(deep));
+        Assertions.assertEquals(0, table.probe(shallow));
+        Assertions.assertNotEquals(0, table.probe(incoming));
+
+        // entries from an earlier search go before a shallower one from this search
+        table.newSearch();
+        table.store(shallow, 0, 20, 1, TranspositionTable.EXACT, 0);
+        table.store(KEY + 3L * buckets, 0, 40, 1, TranspositionTable.EXACT, 0);
+        Assertions.assertNotEquals(0, table.probe(shallow));
+        Assertions.assertNotEquals(0, table.probe(KEY + 3L * buckets));
+        Assertions.assertEquals(0, table.probe(deep));
+    }
+
+    @Test
+    @DisplayName("Same Key Keeps Its Move")
+    void sameKey() {
+        var table = new TranspositionTable(1);
+        var move = PackedMove.of(6, 21);
+        table.store(KEY, move, 40, 3, TranspositionTable.LOWER, 0);
+        table.store(KEY, 0, 25, 4, TranspositionTable.UPPER, 0);
+
+        var entry = table.probe(KEY);
+        Assertions.assertEquals(4, TranspositionTable.depth(entry));
+        Assertions.assertEquals(PackedMove.key(move), TranspositionTable.move(entry));
+    }
+
+    @Test
+    @DisplayName("Rates And Clear")
+    void rates() {
+        var table = new TranspositionTable(1);
+        Assertions.assertEquals(0, table.hitRate());
+        table.store(KEY, 0, 0, 1, TranspositionTable.EXACT, 0);
+        table.probe(KEY);
+        table.probe(KEY + 1);
+        Assertions.assertEquals(0.5, table.hitRate(), 1e-9);
+
+        table.clear();
+        Assertions.assertEquals(0, table.probe(KEY));
+        Assertions.assertEquals(0, table.fillRate());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("Warm Table Saves Nodes")
+    void warmTable() {
+        var engine = new Engine();
+        var game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var cold = engine.search(game, SearchLimits.depth(3));
+        Assertions.assertTrue(engine.table().fillRate() > 0);
+        var warm = engine.search(game, SearchLimits.depth(3));
+        Assertions.assertTrue(warm.nodes() < cold.nodes());
+        Assertions.assertEquals(cold.bestMove(), warm.bestMove());
+
+        engine.clearHash();
+        Assertions.assertEquals(cold.nodes(), engine.search(game, SearchLimits.depth(3)).nodes());
+    }
+}
@@ -0,0 +1,85 @@
+package chessTests;
+
+import chess.Fen;
+import chess.Move;
+import chess.Position;
+import chess.engine.Uci;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.List;
+
+class UciTest {
+
+    @Test
+    @DisplayName("Handshake")
+    void handshake() throws IOException {
+        var output = run("uci", "isready", "quit");
+        Assertions.assertTrue(output.get(0).startsWith("id name "));
+        Assertions.assertTrue(output.contains("option name Hash type spin default 16 min 1 max 4096"));
+        Assertions.assertEquals(List.of("uciok", "readyok"), output.subList(output.size() - 2, output.size()));
+    }
+
+    @Test
+    @DisplayName("Mate In One With Info Lines")
+    void mate() throws IOException {
+        var output = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "go depth 3");
+        Assertions.assertEquals("bestmove a1a8", output.get(output.size() - 1));
+        var info = output.get(0);
+        Assertions.assertTrue(info.startsWith("info depth 1 score mate 1 nodes "), info);
+        Assertions.assertTrue(info.contains(" nps ") && info.endsWith(" pv a1a8"), info);
+    }
+
+    @Test
+    @DisplayName("Moves Played From The Start")
+    void moves() throws IOException {
+        var output = run("position startpos moves e2e4 e7e5 g1f3", "go nodes 500");
+        var answer = output.get(output.size() - 1).split(" ");
+        Assertions.assertEquals("bestmove", answer[0]);
+
+        var game = Fen.parse("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2");
+        var move = new Move(Position.of(answer[1].charAt(1) - '0', answer[1].charAt(0) - 'a' + 1),
+                Position.of(answer[1].charAt(3) - '0', answer[1].charAt(2) - 'a' + 1));
+        Assertions.assertTrue(game.isLegal(move), answer[1]);
+    }
+
+    @Test
+    @DisplayName("Promotions And Bad Moves")
+    void promotion() throws IOException {
+        var output = run("position fen 8/4P1k1/8/8/8/8/8/4K3 w - - 0 1", "go depth 3");
+        Assertions.assertTrue(output.get(output.size() - 1).startsWith("bestmove e7e8q"));
+
+        var illegal = run("position startpos moves e2e5", "go depth 1");
+        Assertions.assertTrue(illegal.get(0).startsWith("info string Illegal move e2e5"));
+        Assertions.assertTrue(illegal.get(illegal.size() - 1).startsWith("bestmove "));
+    }
+
+    @Test
+    @DisplayName("Pondering And Infinite Searches Wait To Answer")
+    void ponder() throws IOException {
+        var pondering = run("position startpos", "go ponder movetime 50", "isready", "ponderhit");
+        Assertions.assertTrue(pondering.contains("readyok"));
+        Assertions.assertEquals(1, pondering.stream().filter(line -> line.startsWith("bestmove ")).count());
+
+        // the end of the input stops an infinite search, which answers like any other
+        var infinite = run("position startpos", "go infinite", "isready", "stop", "go infinite");
+        Assertions.assertEquals(2, infinite.stream().filter(line -> line.startsWith("bestmove ")).count());
+
+        // a go without limits is infinite too, rather than a search to the deepest depth
+        var unlimited = run("position startpos", "go");
+        Assertions.assertEquals(1, unlimited.stream().filter(line -> line.startsWith("bestmove ")).count());
+    }
+
+    private static List<String> run(String... commands) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var in = new BufferedReader(new StringReader(String.join("\n", commands) + "\n"));
+        new Uci(in, new PrintStream(bytes, true)).run();
+        return bytes.toString().lines().toList();
+    }
+}
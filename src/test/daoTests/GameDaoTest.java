@@ -1,6 +1,8 @@
 package daoTests;
 
 import chess.ChessGame;
+import chess.Move;
+import chess.Position;
 import dataAccess.DataAccessException;
 import dataAccess.GameDao;
 import dataAccess.UserDao;
@@ -86,6 +88,29 @@ public class GameDaoTest {
         Assertions.assertThrows(DataAccessException.class, () -> gameDao.claimSpot(testUser.getUsername(), ChessGame.TeamColor.WHITE, testGame.getGameID()));
     }
 
+    @Test
+    @DisplayName("Test update Game")
+    void testUpdateGame() {
+        // make a test game, insert it, then play a move on it and save the new position
+        models.Game testGame = new models.Game("testGame");
+        Assertions.assertDoesNotThrow(() -> gameDao.insert(testGame));
+        Assertions.assertDoesNotThrow(() -> testGame.getGame().makeMove(new Move(Position.of(2, 5), Position.of(4, 5))));
+        Assertions.assertDoesNotThrow(() -> gameDao.updateGame(testGame.getGameID(), testGame.getGame()));
+
+        // the position is loaded back with the move played
+        var foundGame = Assertions.assertDoesNotThrow(() -> gameDao.find(testGame.getGameID()));
+        Assertions.assertEquals(testGame.getGame().toFen(), foundGame.getGame().toFen());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, foundGame.getGame().getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("Test update Game fail")
+    void testUpdateGameFail() {
+        // updating a game that was never inserted throws an error
+        models.Game testGame = new models.Game("testGame");
+        Assertions.assertThrows(DataAccessException.class, () -> gameDao.updateGame(testGame.getGameID(), testGame.getGame()));
+    }
+
     @Test
     @DisplayName("Test find Game")
     void testFind() {
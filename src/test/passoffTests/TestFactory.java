@@ -11,7 +11,7 @@ public class TestFactory {
     //Chess Functions
     //------------------------------------------------------------------------------------------------------------------
     public static ChessBoard getNewBoard() {
-        return new Board();
+        return new BitBoard();
     }
 
     public static ChessGame getNewGame() {
@@ -19,11 +19,11 @@ public class TestFactory {
     }
 
     public static ChessPiece getNewPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
-        return new Piece(pieceColor, type);
+        return Piece.of(pieceColor, type);
     }
 
     public static ChessPosition getNewPosition(Integer row, Integer col) {
-        return new Position(row, col);
+        return Position.of(row, col);
     }
 
     public static ChessMove getNewMove(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {
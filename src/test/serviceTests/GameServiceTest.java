@@ -1,6 +1,8 @@
 package serviceTests;
 
 import chess.ChessGame;
+import chess.Move;
+import chess.Position;
 import dataAccess.AuthTokenDao;
 import dataAccess.DataAccessException;
 import dataAccess.GameDao;
@@ -125,4 +127,39 @@ class GameServiceTest {
         Assertions.assertTrue(listGamesResponse.games().contains(testGame1));
         Assertions.assertTrue(listGamesResponse.games().contains(testGame2));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Hint After A Move")
+    void hintAfterMove() {
+        // insert a game, play a move on it and save it the way the websocket handler does
+        Game testGame = new Game("testGame");
+        Assertions.assertDoesNotThrow(() -> gameDao.insert(testGame));
+        Assertions.assertDoesNotThrow(() -> testGame.getGame().makeMove(new Move(Position.of(2, 5), Position.of(4, 5))));
+        Assertions.assertDoesNotThrow(() -> gameService.saveGame(testGame));
+
+        // the hint is for black in the position after the move
+        var hint = Assertions.assertDoesNotThrow(() -> gameService.hint(testGame.getGameID())).move();
+        Assertions.assertNotNull(hint);
+        var piece = testGame.getGame().getBoard().getPiece(hint.getStartPosition());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, piece.getTeamColor());
+        Assertions.assertTrue(((chess.Game) testGame.getGame()).isLegal(hint));
+    }
+
+    @Test
+    @DisplayName("Export Games As PGN")
+    void exportPgn() {
+        // one game is saved after a move, the other is still at the start
+        Game moved = new Game("moved");
+        Game fresh = new Game("fresh");
+        Assertions.assertDoesNotThrow(() -> gameDao.insert(moved));
+        Assertions.assertDoesNotThrow(() -> gameDao.insert(fresh));
+        Assertions.assertDoesNotThrow(() -> moved.getGame().makeMove(new Move(Position.of(2, 5), Position.of(4, 5))));
+        Assertions.assertDoesNotThrow(() -> gameService.saveGame(moved));
+
+        // the moved game is exported from its saved position, the fresh one from the start
+        var pgn = Assertions.assertDoesNotThrow(gameService::exportPgn);
+        Assertions.assertTrue(pgn.contains("[Event \"moved\"]"));
+        Assertions.assertTrue(pgn.contains("[FEN \"" + moved.getGame().toFen() + "\"]"));
+        Assertions.assertEquals(1, pgn.split("\\[SetUp ", -1).length - 1);
+    }
+}